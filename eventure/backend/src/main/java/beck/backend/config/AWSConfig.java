@@ -1,15 +1,26 @@
 package beck.backend.config;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+import java.net.URI;
+import java.time.Duration;
 
 @Configuration
 public class AWSConfig {
@@ -23,6 +34,22 @@ public class AWSConfig {
     @Value("${AWS_SECRET_ACCESS_KEY:}")
     private String secretAccessKey;
 
+    // Point at DynamoDB Local (e.g. http://localhost:8000) for offline runs
+    @Value("${aws.dynamodb.endpoint:}")
+    private String dynamoDbEndpoint;
+
+    @Value("${events.dynamodb.async.max-concurrency:100}")
+    private int asyncMaxConcurrency;
+
+    @Value("${events.dynamodb.async.max-pending-acquires:1000}")
+    private int asyncMaxPendingAcquires;
+
+    @Value("${events.dynamodb.async.acquire-timeout-ms:5000}")
+    private long asyncAcquireTimeoutMs;
+
+    @Value("${events.dynamodb.async.connect-timeout-ms:2000}")
+    private long asyncConnectTimeoutMs;
+
     @Bean
     public AwsCredentialsProvider awsCredentialsProvider() {
         AwsBasicCredentials credentials = AwsBasicCredentials.create(accessKeyId, secretAccessKey);
@@ -31,24 +58,68 @@ public class AWSConfig {
 
     @Bean
     public BedrockRuntimeClient bedrockRuntimeClient(AwsCredentialsProvider credentialsProvider) {
+        // BedrockGateway owns retries for Bedrock so throttling isn't retried twice
         return BedrockRuntimeClient.builder()
                 .region(Region.of(region))
                 .credentialsProvider(credentialsProvider)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .build())
                 .build();
     }
 
+    // Only used for InvokeModelWithResponseStream, which has no blocking variant
     @Bean
-    public DynamoDbClient dynamoDbClient(AwsCredentialsProvider credentialsProvider) {
-        return DynamoDbClient.builder()
+    public BedrockRuntimeAsyncClient bedrockRuntimeAsyncClient(AwsCredentialsProvider credentialsProvider) {
+        return BedrockRuntimeAsyncClient.builder()
                 .region(Region.of(region))
                 .credentialsProvider(credentialsProvider)
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .build())
                 .build();
     }
 
+    @Bean
+    public DynamoDbClient dynamoDbClient(AwsCredentialsProvider credentialsProvider) {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider);
+        if (!dynamoDbEndpoint.isBlank()) {
+            builder.endpointOverride(URI.create(dynamoDbEndpoint));
+        }
+        return builder.build();
+    }
+
     @Bean
     public DynamoDbEnhancedClient dynamoDbEnhancedClient(DynamoDbClient dynamoDbClient) {
         return DynamoDbEnhancedClient.builder()
                 .dynamoDbClient(dynamoDbClient)
                 .build();
     }
+
+    @Bean
+    @ConditionalOnProperty(name = "events.repository.mode", havingValue = "async")
+    public DynamoDbAsyncClient dynamoDbAsyncClient(AwsCredentialsProvider credentialsProvider) {
+        DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder()
+                .region(Region.of(region))
+                .credentialsProvider(credentialsProvider)
+                .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                        .maxConcurrency(asyncMaxConcurrency)
+                        .maxPendingConnectionAcquires(asyncMaxPendingAcquires)
+                        .connectionAcquisitionTimeout(Duration.ofMillis(asyncAcquireTimeoutMs))
+                        .connectionTimeout(Duration.ofMillis(asyncConnectTimeoutMs)));
+        if (!dynamoDbEndpoint.isBlank()) {
+            builder.endpointOverride(URI.create(dynamoDbEndpoint));
+        }
+        return builder.build();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "events.repository.mode", havingValue = "async")
+    public DynamoDbEnhancedAsyncClient dynamoDbEnhancedAsyncClient(DynamoDbAsyncClient dynamoDbAsyncClient) {
+        return DynamoDbEnhancedAsyncClient.builder()
+                .dynamoDbClient(dynamoDbAsyncClient)
+                .build();
+    }
 }
\ No newline at end of file
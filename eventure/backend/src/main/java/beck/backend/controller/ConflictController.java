@@ -1,7 +1,7 @@
 package beck.backend.controller;
 
 import beck.backend.model.Event;
-import beck.backend.service.TravelTimeService;
+import beck.backend.service.ScheduleConflictService;
 import beck.backend.service.SmartSchedulerService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -18,8 +18,8 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class ConflictController {
 
-    private final TravelTimeService travelTimeService;
     private final SmartSchedulerService smartSchedulerService;
+    private final ScheduleConflictService scheduleConflictService;
     @PostMapping("/conflict")
     public ResponseEntity<Map<String, Object>> checkConflict(@RequestBody Map<String, Event> payload) {
         Event first = payload.get("first");
@@ -34,44 +34,28 @@ public class ConflictController {
 
         log.info("Checking conflict between '{}' and '{}'", first.getTitle(), second.getTitle());
 
-        if (!first.timeRangeOverlap(second)) {
+        // Same rules as the batch check, so both endpoints agree on any pair
+        List<ScheduleConflictService.Conflict> conflicts =
+            scheduleConflictService.findConflicts(Map.of("day", List.of(first, second)));
+        if (conflicts.isEmpty()) {
             return ResponseEntity.ok(Map.of("conflict", false));
         }
+        return ResponseEntity.ok(Map.of(
+            "conflict", true,
+            "reason", conflicts.get(0).reason()
+        ));
+    }
+    // Body: {"Monday": [events], ...}; checks every overlap and travel gap in the week in one call
+    @PostMapping("/conflicts")
+    public ResponseEntity<Map<String, Object>> checkConflicts(@RequestBody Map<String, List<Event>> schedule) {
+        int total = schedule.values().stream().mapToInt(events -> events == null ? 0 : events.size()).sum();
+        log.info("Checking conflicts across {} days, {} events", schedule.size(), total);
 
-        if (first.getAddress() == null || second.getAddress() == null) {
-            log.warn("Missing address for one or both events, assuming conflict");
-            return ResponseEntity.ok(Map.of(
-                "conflict", true,
-                "reason", "Time overlap detected"
-            ));
-        }
-
-        try {
-            int travelMinutes = travelTimeService.getTravelTimeMinutes(
-                first.getAddress(), 
-                second.getAddress()
-            );
-            
-            int gapMinutes = second.getStartTime() - first.getEndTime();
-            boolean hasConflict = gapMinutes < travelMinutes;
-
-            if (hasConflict) {
-                log.info("Conflict detected: need {} min travel, only {} min gap", travelMinutes, gapMinutes);
-                return ResponseEntity.ok(Map.of(
-                    "conflict", true,
-                    "reason", String.format("Need %d min travel time, only %d min available", travelMinutes, gapMinutes)
-                ));
-            } else {
-                log.info("No conflict: {} min gap is enough for {} min travel", gapMinutes, travelMinutes);
-                return ResponseEntity.ok(Map.of("conflict", false));
-            }
-        } catch (Exception e) {
-            log.error("Error calculating travel time: {}", e.getMessage(), e);
-            return ResponseEntity.ok(Map.of(
-                "conflict", true,
-                "reason", "Could not calculate travel time, assuming conflict"
-            ));
-        }
+        List<ScheduleConflictService.Conflict> conflicts = scheduleConflictService.findConflicts(schedule);
+        return ResponseEntity.ok(Map.of(
+            "conflict", !conflicts.isEmpty(),
+            "conflicts", conflicts
+        ));
     }
     @PostMapping("/optimize")
     public ResponseEntity<Map<String, List<Event>>> optimizeSchedule(@RequestBody List<Event> events) {
@@ -1,16 +1,24 @@
 package beck.backend.controller;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import beck.backend.model.Event;
 import beck.backend.model.ChatRequest;
 import beck.backend.model.ChatResponse;
 import beck.backend.service.EventService;
-import beck.backend.service.BedrockService;
+import beck.backend.service.LlmService;
+import beck.backend.service.ScrapeJobService;
 import lombok.extern.slf4j.Slf4j;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 @Slf4j
 @RestController
@@ -22,11 +30,29 @@ public class EventController {
     private EventService eventService;
     
     @Autowired
-    private BedrockService bedrockService;
+    private LlmService llmService;
+
+    @Autowired
+    private ScrapeJobService scrapeJobService;
 
     @GetMapping("/events")
-    public List<Event> getAllEvents() {
-        return eventService.getAllEvents();
+    public CompletableFuture<ResponseEntity<List<Event>>> getAllEvents(
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        if (from == null && to == null) {
+            return eventService.getAllEventsAsync().thenApply(ResponseEntity::ok);
+        }
+        if (from == null || to == null) {
+            log.warn("Received event range request missing 'from' or 'to'");
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Collections.emptyList()));
+        }
+        try {
+            return eventService.getEventsInRangeAsync(from, to).thenApply(ResponseEntity::ok);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid event range {} - {}: {}", from, to, e.getMessage());
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(Collections.emptyList()));
+        }
     }
 
     @GetMapping("/events/scrape")
@@ -35,6 +61,17 @@ public class EventController {
         return eventService.scrapeFromUrl(url);
     }
 
+    // Streams "progress", one "event" per extracted event as Bedrock produces it, then "done" with the saved events.
+    // The declared SseEmitter body type is what makes Spring stream it, so a full queue is reported by throwing.
+    @GetMapping(value = "/events/scrape/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamScrape(@RequestParam String url) {
+        log.info("Received streamed scrape request for URL: {}", url);
+        return scrapeJobService.streamScrape(url)
+            .map(ResponseEntity::ok)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS,
+                "Scrape queue is full, try again later"));
+    }
+
     @PostMapping(
         value = "/events/scrape",
         consumes = MediaType.APPLICATION_JSON_VALUE,
@@ -55,10 +92,27 @@ public class EventController {
         consumes = MediaType.APPLICATION_JSON_VALUE,
         produces = MediaType.APPLICATION_JSON_VALUE
     )
-    public ResponseEntity<Event> addEvent(@RequestBody Event event) {
+    public CompletableFuture<ResponseEntity<Event>> addEvent(@RequestBody Event event) {
         log.info("Manually adding event: {}", event.getTitle());
-        Event saved = eventService.addEvent(event);
-        return ResponseEntity.ok(saved);
+        return eventService.addEventAsync(event).thenApply(ResponseEntity::ok);
+    }
+
+    @PatchMapping(
+        value = "/events/{id}",
+        consumes = MediaType.APPLICATION_JSON_VALUE,
+        produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public ResponseEntity<Object> patchEvent(@PathVariable String id, @RequestBody Event changes) {
+        log.info("Patching event: {}", id);
+        try {
+            return eventService.patchEvent(id, changes)
+                .<ResponseEntity<Object>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Event not found with ID: " + id)));
+        } catch (ConcurrentModificationException e) {
+            log.warn("Rejected stale update for event {}: {}", id, e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
     }
 
     @DeleteMapping("/events")
@@ -68,18 +122,46 @@ public class EventController {
     }
 
     @GetMapping("/events/health")
-    public Map<String, String> eventsHealth() {
-        return Map.of(
+    public CompletableFuture<Map<String, String>> eventsHealth() {
+        return eventService.getEventCountAsync().thenApply(count -> Map.of(
             "status", "ok",
-            "eventsCount", String.valueOf(eventService.getAllEvents().size())
-        );
+            "eventsCount", String.valueOf(count)
+        ));
     }
 
     @PostMapping("/ai/chat")
     public ChatResponse chat(@RequestBody ChatRequest request) {
         log.info("Received chat request: {}", request.getMessage());
-        return bedrockService.chat(request);
+        return llmService.chat(request);
+    }
+
+    // Sends each text delta as a "token" event and the full response as "done"
+    @PostMapping(value = "/ai/chat/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter chatStream(@RequestBody ChatRequest request) {
+        log.info("Received streaming chat request: {}", request.getMessage());
+        SseEmitter emitter = new SseEmitter(120000L);
+        llmService.chatStream(request, text -> {
+            try {
+                emitter.send(SseEmitter.event().name("token").data(text));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        }).whenComplete((response, error) -> {
+            if (error != null) {
+                log.warn("Chat stream failed: {}", error.getMessage());
+                emitter.completeWithError(error);
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("done").data(response));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
     }
+
     @GetMapping("/ai/health")
     public String aiHealth() {
         return "Bedrock AI API is running!";
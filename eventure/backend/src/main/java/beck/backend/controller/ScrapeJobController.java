@@ -0,0 +1,55 @@
+package beck.backend.controller;
+
+import beck.backend.model.ScrapeJob;
+import beck.backend.service.ScrapeJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/events/scrape/jobs")
+@CrossOrigin(origins = "*")
+@RequiredArgsConstructor
+public class ScrapeJobController {
+
+    private final ScrapeJobService scrapeJobService;
+
+    @PostMapping(consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<Object> submitJob(@RequestBody Map<String, String> payload) {
+        String url = payload.getOrDefault("url", "").trim();
+        if (url.isEmpty()) {
+            log.warn("Received scrape job without a URL");
+            return ResponseEntity.badRequest().body(Map.of("error", "Missing url"));
+        }
+
+        Optional<ScrapeJob> job = scrapeJobService.submit(url);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .body(Map.of("error", "Scrape queue is full, try again later"));
+        }
+        return ResponseEntity.accepted().body(job.get());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ScrapeJob> getJob(@PathVariable String id) {
+        return scrapeJobService.getJob(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamJob(@PathVariable String id) {
+        return scrapeJobService.stream(id)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -4,11 +4,15 @@ import beck.backend.service.WeatherService;
 import beck.backend.service.WeatherService.WeatherData;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 @Slf4j
 @RestController
 @RequestMapping("/api/weather")
@@ -17,24 +21,57 @@ import java.util.Map;
 public class WeatherController {
 
     private final WeatherService weatherService;
+    @Value("${weather.batch.max-locations:50}")
+    private int maxBatchLocations;
+
     @GetMapping
-    public ResponseEntity<Map<String, WeatherData>> getWeekWeather(
+    public CompletableFuture<ResponseEntity<Map<String, WeatherData>>> getWeekWeather(
         @RequestParam(defaultValue = "Seattle, WA") String location
     ) {
         log.info("Getting week weather for: {}", location);
         
-        Map<String, WeatherData> weekWeather = new HashMap<>();
         LocalDate today = LocalDate.now();
         String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
         
-        for (int i = 0; i < 5; i++) {
-            LocalDate date = today.plusDays(i);
-            WeatherData weather = weatherService.getWeather(location, date);
-            weekWeather.put(days[i], weather);
+        // One cached forecast covers all five days
+        return weatherService.getWeatherAsync(location, today, days.length).thenApply(weather -> {
+            Map<String, WeatherData> weekWeather = new HashMap<>();
+            List<WeatherData> forecast = new ArrayList<>(weather.values());
+            for (int i = 0; i < days.length; i++) {
+                weekWeather.put(days[i], forecast.get(i));
+            }
+            return ResponseEntity.ok(weekWeather);
+        });
+    }
+
+    // Body: {"locations": ["Seattle, WA", ...], "days": 5}; all locations are fetched concurrently
+    @PostMapping("/batch")
+    public CompletableFuture<ResponseEntity<Object>> getBatchWeather(@RequestBody Map<String, Object> payload) {
+        if (!(payload.get("locations") instanceof List<?> requested) || requested.isEmpty()) {
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body(Map.of("error", "Missing locations")));
+        }
+        List<String> locations = requested.stream()
+            .filter(String.class::isInstance)
+            .map(String.class::cast)
+            .filter(location -> !location.isBlank())
+            .distinct()
+            .toList();
+        if (locations.isEmpty() || locations.size() > maxBatchLocations) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body(
+                Map.of("error", "Expected between 1 and " + maxBatchLocations + " locations")));
+        }
+        int days = payload.get("days") instanceof Number number ? number.intValue() : 5;
+        if (days < 1 || days > 16) {
+            return CompletableFuture.completedFuture(
+                ResponseEntity.badRequest().body(Map.of("error", "days must be between 1 and 16")));
         }
 
-        return ResponseEntity.ok(weekWeather);
+        log.info("Getting {}-day weather for {} locations", days, locations.size());
+        return weatherService.getWeatherBatchAsync(locations, LocalDate.now(), days)
+            .thenApply(ResponseEntity::ok);
     }
+
     @GetMapping("/{day}")
     public ResponseEntity<WeatherData> getDayWeather(
         @PathVariable String day,
@@ -0,0 +1,28 @@
+package beck.backend.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchWriteReport {
+    private List<Event> saved = new ArrayList<>();
+    private List<FailedWrite> failed = new ArrayList<>();
+
+    public boolean hasFailures() {
+        return !failed.isEmpty();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedWrite {
+        private String id;
+        private String title;
+        private String reason;
+    }
+}
@@ -6,4 +6,7 @@ public class ChatRequest {
     private String modelId = "us.anthropic.claude-3-5-sonnet-20241022-v2:0";
     private Integer maxTokens = 2000;
     private Double temperature = 0.7;
+    // Fixed instructions sent as the system prompt; with cacheSystem set Bedrock caches them as a prompt prefix
+    private String system;
+    private boolean cacheSystem;
 }
\ No newline at end of file
@@ -10,6 +10,7 @@ public class ChatResponse {
     private String modelId;
     private boolean success;
     private String error;
+    private TokenUsage usage;
 
     public ChatResponse(String response, String modelId) {
         this.response = response;
@@ -1,9 +1,13 @@
 package beck.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import software.amazon.awssdk.enhanced.dynamodb.mapper.annotations.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -12,6 +16,8 @@ import java.util.UUID;
 @AllArgsConstructor
 @DynamoDbBean
 public class Event {
+
+    public static final String DATE_INDEX = "dateBucket-index";
     
     private String id;
     private String title;
@@ -52,6 +58,20 @@ public class Event {
         this.date = date;
     }
 
+    // Normalized yyyy-MM-dd bucket derived from date, used as the partition key of DATE_INDEX;
+    // storage only, so it stays out of API JSON
+    @JsonIgnore
+    @DynamoDbSecondaryPartitionKey(indexNames = DATE_INDEX)
+    @DynamoDbAttribute("dateBucket")
+    public String getDateBucket() {
+        return dateBucket(date);
+    }
+
+    @JsonIgnore
+    public void setDateBucket(String dateBucket) {
+        // derived from date, nothing to store
+    }
+
     @DynamoDbAttribute("startTime")
     public Integer getStartTime() {
         return startTime;
@@ -143,6 +163,28 @@ public class Event {
         }
         return this.startTime < other.getEndTime() && other.getStartTime() < this.endTime;
     }
+    public Event copy() {
+        return new Event(id, title, date == null ? null : new ArrayList<>(date), startTime, endTime, address, description,
+                timeSensitive, url, createdAt, updatedAt);
+    }
+
+    public static String dateBucket(List<Integer> date) {
+        // contains(null) throws on List.of lists, which callers build
+        if (date == null || date.size() != 3) {
+            return null;
+        }
+        for (Integer part : date) {
+            if (part == null) {
+                return null;
+            }
+        }
+        try {
+            return LocalDate.of(date.get(2), date.get(0), date.get(1)).toString();
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
     public void ensureIdAndTimestamps() {
         if (this.id == null || this.id.isEmpty()) {
             this.id = UUID.randomUUID().toString();
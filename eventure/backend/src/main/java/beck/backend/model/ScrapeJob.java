@@ -0,0 +1,33 @@
+package beck.backend.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+public class ScrapeJob {
+
+    public enum Status { QUEUED, FETCHING, EXTRACTING, SAVING, DONE, FAILED }
+
+    private volatile String id;
+    private volatile String url;
+    private volatile Status status;
+    private volatile List<Event> events;
+    private volatile String error;
+    private volatile Long createdAt;
+    private volatile Long updatedAt;
+
+    public ScrapeJob(String url) {
+        this.id = UUID.randomUUID().toString();
+        this.url = url;
+        this.status = Status.QUEUED;
+        this.createdAt = System.currentTimeMillis();
+        this.updatedAt = this.createdAt;
+    }
+
+    public boolean isFinished() {
+        return status == Status.DONE || status == Status.FAILED;
+    }
+}
@@ -0,0 +1,14 @@
+package beck.backend.model;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+// Token counts Bedrock reports for one call; cacheRead/cacheCreation are the prompt-cache share of the input
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenUsage {
+    private int inputTokens;
+    private int outputTokens;
+    private int cacheReadInputTokens;
+    private int cacheCreationInputTokens;
+}
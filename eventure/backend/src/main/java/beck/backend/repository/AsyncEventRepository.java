@@ -0,0 +1,241 @@
+package beck.backend.repository;
+import beck.backend.model.Event;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncIndex;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbAsyncTable;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedAsyncClient;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.ReturnValue;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.Select;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking counterpart of {@link EventRepository}, enabled with events.repository.mode=async.
+ * Table creation and batch writes stay on the blocking repository.
+ */
+@Slf4j
+@Repository
+@ConditionalOnProperty(name = "events.repository.mode", havingValue = "async")
+public class AsyncEventRepository {
+
+    private final DynamoDbAsyncClient dynamoDbAsyncClient;
+    private final EventCache eventCache;
+    private final DynamoDbAsyncTable<Event> table;
+    private final AtomicReference<CompletableFuture<Long>> seeding = new AtomicReference<>();
+
+    public AsyncEventRepository(DynamoDbEnhancedAsyncClient enhancedAsyncClient,
+                                DynamoDbAsyncClient dynamoDbAsyncClient,
+                                EventCache eventCache) {
+        this.dynamoDbAsyncClient = dynamoDbAsyncClient;
+        this.eventCache = eventCache;
+        this.table = enhancedAsyncClient.table(EventRepository.TABLE_NAME, EventTableSchema.SCHEMA);
+    }
+
+    public CompletableFuture<Event> save(Event event) {
+        event.ensureIdAndTimestamps();
+        // As in the blocking repository, only a put that replaced nothing is an insert
+        AtomicBoolean isNew = new AtomicBoolean();
+        return table.putItemWithResponse(PutItemEnhancedRequest.builder(Event.class)
+                        .item(event)
+                        .returnValues(ReturnValue.ALL_OLD)
+                        .build())
+                .thenCompose(response -> {
+                    isNew.set(response.attributes() == null);
+                    return isNew.get() ? adjustCount(1) : CompletableFuture.<Void>completedFuture(null);
+                })
+                .thenApply(ignored -> {
+                    eventCache.onWrite(event, isNew.get());
+                    log.info("Saved event: {} (ID: {})", event.getTitle(), event.getId());
+                    return event;
+                });
+    }
+
+    public CompletableFuture<Optional<Event>> findById(String id) {
+        Optional<Event> cached = eventCache.peekEvent(id);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        long generation = eventCache.generation();
+        return table.getItem(Key.builder().partitionValue(id).build())
+                .thenApply(event -> {
+                    eventCache.putEvent(event, generation);
+                    return Optional.ofNullable(event);
+                })
+                .exceptionally(e -> {
+                    log.error("Error finding event by ID {}: {}", id, e.getMessage(), e);
+                    return Optional.empty();
+                });
+    }
+
+    public CompletableFuture<List<Event>> findAll() {
+        Optional<List<Event>> cached = eventCache.peekAll();
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(new ArrayList<>(cached.get()));
+        }
+        long generation = eventCache.generation();
+        List<Event> events = new ArrayList<>();
+        return table.scan().items().subscribe(events::add)
+                .thenApply(ignored -> {
+                    eventCache.putAll(events, generation);
+                    return events;
+                })
+                .exceptionally(e -> {
+                    log.error("Error fetching all events: {}", e.getMessage(), e);
+                    return new ArrayList<>();
+                });
+    }
+
+    // Cached weeks are served from memory; missing ones are queried concurrently and materialized
+    public CompletableFuture<List<Event>> findByDateRange(LocalDate from, LocalDate to) {
+        EventRepository.validateRange(from, to);
+        CompletableFuture<List<Event>> result;
+        if (!eventCache.isEnabled()) {
+            result = queryDays(from, to);
+        } else {
+            long generation = eventCache.generation();
+            List<CompletableFuture<List<Event>>> weeks = new ArrayList<>();
+            for (LocalDate week = EventCache.weekStart(from); !week.isAfter(to); week = week.plusWeeks(1)) {
+                LocalDate start = week;
+                weeks.add(eventCache.peekWeek(start)
+                        .map(CompletableFuture::completedFuture)
+                        .orElseGet(() -> queryDays(start, start.plusDays(6)).thenApply(events -> {
+                            eventCache.putWeek(start, events, generation);
+                            return events;
+                        })));
+            }
+            result = CompletableFuture.allOf(weeks.toArray(CompletableFuture<?>[]::new))
+                    .thenApply(ignored -> {
+                        List<Event> events = new ArrayList<>();
+                        for (CompletableFuture<List<Event>> week : weeks) {
+                            for (Event event : week.join()) {
+                                LocalDate day = LocalDate.parse(event.getDateBucket());
+                                if (!day.isBefore(from) && !day.isAfter(to)) {
+                                    events.add(event);
+                                }
+                            }
+                        }
+                        return events;
+                    });
+        }
+        return result.exceptionally(e -> {
+            log.error("Error fetching events from {} to {}: {}", from, to, e.getMessage(), e);
+            return new ArrayList<>();
+        });
+    }
+
+    // Issues one index query per day bucket concurrently and merges the results
+    private CompletableFuture<List<Event>> queryDays(LocalDate from, LocalDate to) {
+        DynamoDbAsyncIndex<Event> index = table.index(Event.DATE_INDEX);
+
+        List<CompletableFuture<List<Event>>> days = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            QueryConditional condition = QueryConditional.keyEqualTo(
+                    Key.builder().partitionValue(day.toString()).build());
+            List<Event> dayEvents = new ArrayList<>();
+            days.add(index.query(QueryEnhancedRequest.builder().queryConditional(condition).build())
+                    .subscribe(page -> dayEvents.addAll(page.items()))
+                    .thenApply(ignored -> dayEvents));
+        }
+
+        return CompletableFuture.allOf(days.toArray(CompletableFuture<?>[]::new))
+                .thenApply(ignored -> {
+                    List<Event> events = new ArrayList<>();
+                    days.forEach(day -> events.addAll(day.join()));
+                    events.sort(EventRepository.DATE_ORDER);
+                    return events;
+                });
+    }
+
+    public CompletableFuture<Boolean> deleteById(String id) {
+        return table.deleteItem(Key.builder().partitionValue(id).build())
+                .thenCompose(deleted -> {
+                    eventCache.onDelete(id, deleted);
+                    return deleted != null ? adjustCount(-1) : CompletableFuture.<Void>completedFuture(null);
+                })
+                .thenApply(ignored -> {
+                    log.info("Deleted event with ID: {}", id);
+                    return true;
+                })
+                .exceptionally(e -> {
+                    log.error("Error deleting event {}: {}", id, e.getMessage(), e);
+                    return false;
+                });
+    }
+
+    public CompletableFuture<Long> count() {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(EventRepository.COUNTER_TABLE_NAME)
+                .key(EventRepository.counterKey())
+                .consistentRead(true)
+                .build();
+        return dynamoDbAsyncClient.getItem(request)
+                .thenCompose(response -> {
+                    AttributeValue value = response.hasItem() ? response.item().get(EventRepository.COUNT_ATTRIBUTE) : null;
+                    return value != null ? CompletableFuture.completedFuture(Long.parseLong(value.n())) : seedCounter();
+                })
+                .exceptionally(e -> {
+                    log.error("Error counting events: {}", e.getMessage(), e);
+                    return 0L;
+                });
+    }
+
+    // A missing counter is rare; rebuild it with an async COUNT scan, shared by every caller while it runs
+    private CompletableFuture<Long> seedCounter() {
+        CompletableFuture<Long> mine = new CompletableFuture<>();
+        CompletableFuture<Long> existing = seeding.compareAndExchange(null, mine);
+        if (existing != null) {
+            return existing;
+        }
+
+        AtomicLong total = new AtomicLong();
+        ScanRequest scanRequest = ScanRequest.builder()
+                .tableName(EventRepository.TABLE_NAME)
+                .select(Select.COUNT)
+                .build();
+        dynamoDbAsyncClient.scanPaginator(scanRequest)
+                .subscribe(page -> total.addAndGet(page.count()))
+                .thenCompose(ignored -> dynamoDbAsyncClient.putItem(PutItemRequest.builder()
+                        .tableName(EventRepository.COUNTER_TABLE_NAME)
+                        .item(Map.of(
+                                "name", EventRepository.counterKey().get("name"),
+                                EventRepository.COUNT_ATTRIBUTE, AttributeValue.builder().n(Long.toString(total.get())).build()))
+                        .build()))
+                .whenComplete((ignored, error) -> {
+                    seeding.set(null);
+                    if (error != null) {
+                        mine.completeExceptionally(error);
+                    } else {
+                        log.info("Recounted {} events", total.get());
+                        mine.complete(total.get());
+                    }
+                });
+        return mine;
+    }
+
+    private CompletableFuture<Void> adjustCount(long delta) {
+        return dynamoDbAsyncClient.updateItem(EventRepository.counterAdjustment(delta))
+                .<Void>thenApply(ignored -> null)
+                .exceptionally(e -> {
+                    log.warn("Failed to adjust event counter by {}: {}", delta, e.getMessage());
+                    return null;
+                });
+    }
+}
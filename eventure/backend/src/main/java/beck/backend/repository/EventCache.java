@@ -0,0 +1,170 @@
+package beck.backend.repository;
+import beck.backend.model.Event;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory read-through cache in front of the Events table: a by-id map plus materialized
+ * lists for the whole table and for each Monday-started week. Writes that go through the
+ * repositories keep it coherent; the TTL bounds staleness from writes made by other instances.
+ * Events are copied on the way in and out, so callers can modify what they get without touching
+ * the cache. Asynchronous readers pass the generation they started at to the put methods, and
+ * results read before a write that has since landed are dropped instead of cached.
+ */
+@Slf4j
+@Component
+public class EventCache {
+
+    private static final String ALL_KEY = "all";
+
+    private final boolean enabled;
+    private final Cache<String, Event> byId;
+    private final Cache<String, List<Event>> lists;
+    // Bumped by every write under the cache's lock; guarded puts only store if it hasn't moved
+    private long generation;
+
+    public EventCache(MeterRegistry meterRegistry,
+                      @Value("${events.cache.enabled:true}") boolean enabled,
+                      @Value("${events.cache.max-size:10000}") long maxSize,
+                      @Value("${events.cache.max-weeks:52}") long maxWeeks,
+                      @Value("${events.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.enabled = enabled;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(maxWeeks + 1)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "events.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, lists, "events.lists");
+        log.info("Event cache {} (max {} events, ttl {}s)", enabled ? "enabled" : "disabled", maxSize, ttlSeconds);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public static LocalDate weekStart(LocalDate date) {
+        return date.with(DayOfWeek.MONDAY);
+    }
+
+    /** Take before starting an asynchronous read whose result will be put back into the cache. */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    // Loads through Caffeine are invalidated by concurrent writes, so only the copies need handling here
+    public Event getEvent(String id, Function<String, Event> loader) {
+        return enabled ? copyOf(byId.get(id, key -> copyOf(loader.apply(key)))) : loader.apply(id);
+    }
+
+    public Optional<Event> peekEvent(String id) {
+        return enabled ? Optional.ofNullable(copyOf(byId.getIfPresent(id))) : Optional.empty();
+    }
+
+    public synchronized void putEvent(Event event, long readGeneration) {
+        if (enabled && event != null && readGeneration == generation) {
+            byId.put(event.getId(), event.copy());
+        }
+    }
+
+    public List<Event> getAll(Supplier<List<Event>> loader) {
+        return enabled ? copies(lists.get(ALL_KEY, key -> copies(loader.get()))) : loader.get();
+    }
+
+    public Optional<List<Event>> peekAll() {
+        return enabled ? Optional.ofNullable(lists.getIfPresent(ALL_KEY)).map(EventCache::copies) : Optional.empty();
+    }
+
+    public synchronized void putAll(List<Event> events, long readGeneration) {
+        if (enabled && readGeneration == generation) {
+            lists.put(ALL_KEY, copies(events));
+        }
+    }
+
+    public List<Event> getWeek(LocalDate weekStart, Function<LocalDate, List<Event>> loader) {
+        if (!enabled) {
+            return loader.apply(weekStart);
+        }
+        return copies(lists.get(weekStart.toString(), key -> copies(loader.apply(weekStart))));
+    }
+
+    public Optional<List<Event>> peekWeek(LocalDate weekStart) {
+        return enabled ? Optional.ofNullable(lists.getIfPresent(weekStart.toString())).map(EventCache::copies) : Optional.empty();
+    }
+
+    public synchronized void putWeek(LocalDate weekStart, List<Event> events, long readGeneration) {
+        if (enabled && readGeneration == generation) {
+            lists.put(weekStart.toString(), copies(events));
+        }
+    }
+
+    public synchronized void onWrite(Event event, boolean isNew) {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        Event previous = byId.getIfPresent(event.getId());
+        if (!isNew && previous == null) {
+            // Unknown previous date, so any week may have held this event
+            lists.invalidateAll();
+        } else {
+            invalidateWeekOf(previous);
+            invalidateWeekOf(event);
+            lists.invalidate(ALL_KEY);
+        }
+        byId.put(event.getId(), event.copy());
+    }
+
+    public synchronized void onDelete(String id, Event deleted) {
+        if (!enabled) {
+            return;
+        }
+        generation++;
+        Event previous = deleted != null ? deleted : byId.getIfPresent(id);
+        byId.invalidate(id);
+        if (previous == null) {
+            lists.invalidateAll();
+        } else {
+            invalidateWeekOf(previous);
+            lists.invalidate(ALL_KEY);
+        }
+    }
+
+    public synchronized void clear() {
+        generation++;
+        byId.invalidateAll();
+        lists.invalidateAll();
+    }
+
+    private static Event copyOf(Event event) {
+        return event == null ? null : event.copy();
+    }
+
+    private static List<Event> copies(List<Event> events) {
+        return events.stream().map(Event::copy).toList();
+    }
+
+    private void invalidateWeekOf(Event event) {
+        if (event == null || event.getDateBucket() == null) {
+            return;
+        }
+        lists.invalidate(weekStart(LocalDate.parse(event.getDateBucket())).toString());
+    }
+}
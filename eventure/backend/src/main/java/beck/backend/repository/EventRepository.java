@@ -1,31 +1,90 @@
 package beck.backend.repository;
+import beck.backend.model.BatchWriteReport;
 import beck.backend.model.Event;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Repository;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbIndex;
 import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
 import software.amazon.awssdk.enhanced.dynamodb.Key;
-import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.BatchWriteResult;
+import software.amazon.awssdk.enhanced.dynamodb.model.PutItemEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryConditional;
+import software.amazon.awssdk.enhanced.dynamodb.model.QueryEnhancedRequest;
 import software.amazon.awssdk.enhanced.dynamodb.model.ScanEnhancedRequest;
+import software.amazon.awssdk.enhanced.dynamodb.model.WriteBatch;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.services.dynamodb.model.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Repository
-@RequiredArgsConstructor
 public class EventRepository {
 
     private final DynamoDbEnhancedClient enhancedClient;
     private final DynamoDbClient dynamoDbClient;
-    private static final String TABLE_NAME = "Events";
+    private final EventCache eventCache;
+    private final DynamoDbTable<Event> table;
+    static final String TABLE_NAME = "Events";
+    static final String COUNTER_TABLE_NAME = "EventCounters";
+    static final String COUNT_ATTRIBUTE = "eventCount";
+    static final Comparator<Event> DATE_ORDER = Comparator.comparing(Event::getDateBucket)
+            .thenComparing(Event::getStartTime, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final String COUNTER_NAME = "events";
+    private static final long MAX_RANGE_DAYS = 62;
+    private static final int BATCH_SIZE = 25;
+    private static final int BATCH_GET_SIZE = 100;
+    private static final int MAX_BATCH_ATTEMPTS = 5;
+    private static final long BASE_BACKOFF_MS = 50;
+    private static final Set<String> SERVER_MANAGED_ATTRIBUTES = Set.of("id", "createdAt", "updatedAt");
 
-    private DynamoDbTable<Event> getTable() {
-        return enhancedClient.table(TABLE_NAME, TableSchema.fromBean(Event.class));
+    @Value("${events.batch.parallelism:4}")
+    private int batchParallelism;
+
+    @Value("${events.index.wait-timeout-seconds:900}")
+    private long indexWaitTimeoutSeconds;
+
+    @Value("${events.index.poll-interval-ms:5000}")
+    private long indexPollIntervalMs;
+
+    private ExecutorService batchExecutor;
+
+    public EventRepository(DynamoDbEnhancedClient enhancedClient, DynamoDbClient dynamoDbClient, EventCache eventCache) {
+        this.enhancedClient = enhancedClient;
+        this.dynamoDbClient = dynamoDbClient;
+        this.eventCache = eventCache;
+        this.table = enhancedClient.table(TABLE_NAME, EventTableSchema.SCHEMA);
+    }
+
+    @PostConstruct
+    public void startBatchExecutor() {
+        batchExecutor = Executors.newFixedThreadPool(batchParallelism);
+    }
+
+    @PreDestroy
+    public void stopBatchExecutor() {
+        batchExecutor.shutdown();
     }
 
     public void createTableIfNotExists() {
@@ -33,12 +92,14 @@ public class EventRepository {
             DescribeTableRequest describeRequest = DescribeTableRequest.builder()
                     .tableName(TABLE_NAME)
                     .build();
-            dynamoDbClient.describeTable(describeRequest);
+            TableDescription description = dynamoDbClient.describeTable(describeRequest).table();
             log.info("Table '{}' already exists", TABLE_NAME);
+            ensureDateIndex(description);
         } catch (ResourceNotFoundException e) {
             log.info("Table '{}' doesn't exist, creating...", TABLE_NAME);
             createTable();
         }
+        createCounterTableIfNotExists();
     }
 
     private void createTable() {
@@ -54,6 +115,14 @@ public class EventRepository {
                         AttributeDefinition.builder()
                                 .attributeName("id")
                                 .attributeType(ScalarAttributeType.S)
+                                .build(),
+                        dateBucketDefinition()
+                )
+                .globalSecondaryIndexes(
+                        GlobalSecondaryIndex.builder()
+                                .indexName(Event.DATE_INDEX)
+                                .keySchema(dateBucketKeySchema())
+                                .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
                                 .build()
                 )
                 .billingMode(BillingMode.PAY_PER_REQUEST)
@@ -61,13 +130,116 @@ public class EventRepository {
 
         dynamoDbClient.createTable(createTableRequest);
         log.info("Table '{}' created successfully", TABLE_NAME);
+        waitUntilActive(TABLE_NAME);
+    }
+
+    private void ensureDateIndex(TableDescription description) {
+        boolean hasIndex = description.hasGlobalSecondaryIndexes() && description.globalSecondaryIndexes().stream()
+                .anyMatch(index -> Event.DATE_INDEX.equals(index.indexName()));
+        if (hasIndex) {
+            return;
+        }
+
+        log.info("Adding index '{}' to table '{}'", Event.DATE_INDEX, TABLE_NAME);
+        try {
+            dynamoDbClient.updateTable(UpdateTableRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .attributeDefinitions(dateBucketDefinition())
+                    .globalSecondaryIndexUpdates(GlobalSecondaryIndexUpdate.builder()
+                            .create(CreateGlobalSecondaryIndexAction.builder()
+                                    .indexName(Event.DATE_INDEX)
+                                    .keySchema(dateBucketKeySchema())
+                                    .projection(Projection.builder().projectionType(ProjectionType.ALL).build())
+                                    .build())
+                            .build())
+                    .build());
+            // Queries against a CREATING index fail, and startup waits here before anything is served
+            if (waitForDateIndex()) {
+                backfillDateBuckets();
+            }
+        } catch (Exception e) {
+            log.error("Error adding index '{}': {}", Event.DATE_INDEX, e.getMessage(), e);
+        }
+    }
 
-        // Wait for table to be active
+    // Polls until the new index is ACTIVE; on a large table DynamoDB backfills it for a while first
+    private boolean waitForDateIndex() {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(indexWaitTimeoutSeconds);
+        DescribeTableRequest describeRequest = DescribeTableRequest.builder().tableName(TABLE_NAME).build();
+        try {
+            while (true) {
+                TableDescription description = dynamoDbClient.describeTable(describeRequest).table();
+                boolean active = description.hasGlobalSecondaryIndexes() && description.globalSecondaryIndexes().stream()
+                        .anyMatch(index -> Event.DATE_INDEX.equals(index.indexName())
+                                && index.indexStatus() == IndexStatus.ACTIVE);
+                if (active) {
+                    log.info("Index '{}' is now active", Event.DATE_INDEX);
+                    return true;
+                }
+                if (System.currentTimeMillis() >= deadline) {
+                    log.error("Index '{}' still not active after {}s; date range queries will fail until it is",
+                            Event.DATE_INDEX, indexWaitTimeoutSeconds);
+                    return false;
+                }
+                Thread.sleep(indexPollIntervalMs);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Rows written before the index existed have no dateBucket attribute; rewriting them puts them in the index
+    private void backfillDateBuckets() {
+        int backfilled = 0;
+        for (Event event : table.scan(ScanEnhancedRequest.builder().build()).items()) {
+            if (event.getDateBucket() != null) {
+                table.putItem(event);
+                backfilled++;
+            }
+        }
+        log.info("Backfilled dateBucket on {} events", backfilled);
+    }
+
+    private AttributeDefinition dateBucketDefinition() {
+        return AttributeDefinition.builder()
+                .attributeName("dateBucket")
+                .attributeType(ScalarAttributeType.S)
+                .build();
+    }
+
+    private KeySchemaElement dateBucketKeySchema() {
+        return KeySchemaElement.builder()
+                .attributeName("dateBucket")
+                .keyType(KeyType.HASH)
+                .build();
+    }
+
+    private void createCounterTableIfNotExists() {
+        try {
+            dynamoDbClient.describeTable(DescribeTableRequest.builder().tableName(COUNTER_TABLE_NAME).build());
+        } catch (ResourceNotFoundException e) {
+            log.info("Table '{}' doesn't exist, creating...", COUNTER_TABLE_NAME);
+            dynamoDbClient.createTable(CreateTableRequest.builder()
+                    .tableName(COUNTER_TABLE_NAME)
+                    .keySchema(KeySchemaElement.builder().attributeName("name").keyType(KeyType.HASH).build())
+                    .attributeDefinitions(AttributeDefinition.builder()
+                            .attributeName("name")
+                            .attributeType(ScalarAttributeType.S)
+                            .build())
+                    .billingMode(BillingMode.PAY_PER_REQUEST)
+                    .build());
+            waitUntilActive(COUNTER_TABLE_NAME);
+            recount();
+        }
+    }
+
+    private void waitUntilActive(String tableName) {
         try {
             dynamoDbClient.waiter().waitUntilTableExists(
-                    DescribeTableRequest.builder().tableName(TABLE_NAME).build()
+                    DescribeTableRequest.builder().tableName(tableName).build()
             );
-            log.info("Table '{}' is now active", TABLE_NAME);
+            log.info("Table '{}' is now active", tableName);
         } catch (Exception e) {
             log.error("Error waiting for table creation: {}", e.getMessage());
         }
@@ -76,8 +248,17 @@ public class EventRepository {
     public Event save(Event event) {
         try {
             event.ensureIdAndTimestamps();
-            DynamoDbTable<Event> table = getTable();
-            table.putItem(event);
+            // Ids are often assigned up front, so only the previous item tells an insert from an overwrite
+            Event previous = table.putItemWithResponse(PutItemEnhancedRequest.builder(Event.class)
+                    .item(event)
+                    .returnValues(ReturnValue.ALL_OLD)
+                    .build())
+                    .attributes();
+            boolean isNew = previous == null;
+            if (isNew) {
+                adjustCount(1);
+            }
+            eventCache.onWrite(event, isNew);
             log.info("Saved event: {} (ID: {})", event.getTitle(), event.getId());
             return event;
         } catch (Exception e) {
@@ -87,47 +268,247 @@ public class EventRepository {
     }
 
     public List<Event> saveAll(List<Event> events) {
-        List<Event> savedEvents = new ArrayList<>();
+        return saveAllWithReport(events).getSaved();
+    }
+
+    // Writes in 25-item BatchWriteItem chunks issued in parallel; unprocessed items are retried with backoff.
+    // Throws without writing anything if the preset ids can't be checked against the table first
+    public BatchWriteReport saveAllWithReport(List<Event> events) {
+        BatchWriteReport report = new BatchWriteReport();
+        if (events.isEmpty()) {
+            return report;
+        }
+
+        // Events may arrive with deterministic ids (upserts); look those up so createdAt survives
+        // and only rows that didn't exist yet count as inserts
+        Set<String> presetIds = new HashSet<>();
+        for (Event event : events) {
+            if (event.getId() != null && !event.getId().isEmpty()) {
+                presetIds.add(event.getId());
+            }
+        }
+        Map<String, Long> existing = findCreatedAt(presetIds);
+
+        Set<String> newIds = new HashSet<>();
         for (Event event : events) {
+            if (event.getId() == null || event.getId().isEmpty() || !existing.containsKey(event.getId())) {
+                event.ensureIdAndTimestamps();
+                newIds.add(event.getId());
+            } else {
+                event.setCreatedAt(existing.get(event.getId()));
+                event.ensureIdAndTimestamps();
+            }
+        }
+
+        List<List<Event>> chunks = partition(events, BATCH_SIZE);
+        List<CompletableFuture<List<Event>>> futures = chunks.stream()
+                .map(chunk -> CompletableFuture.supplyAsync(() -> writeWithRetry(
+                        chunk,
+                        pending -> {
+                            WriteBatch.Builder<Event> batch = WriteBatch.builder(Event.class).mappedTableResource(table);
+                            pending.forEach(batch::addPutItem);
+                            return batch.build();
+                        },
+                        result -> result.unprocessedPutItemsForTable(table)), batchExecutor))
+                .toList();
+
+        long inserted = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            List<Event> chunk = chunks.get(i);
+            Set<String> unprocessedIds = new HashSet<>();
+            String reason = "Unprocessed after " + MAX_BATCH_ATTEMPTS + " attempts";
             try {
-                savedEvents.add(save(event));
+                futures.get(i).join().forEach(event -> unprocessedIds.add(event.getId()));
             } catch (Exception e) {
-                log.error("Failed to save event: {}", event.getTitle(), e);
+                reason = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+                log.error("Batch write of {} events failed: {}", chunk.size(), reason, e);
+                chunk.forEach(event -> unprocessedIds.add(event.getId()));
+            }
+
+            for (Event event : chunk) {
+                if (unprocessedIds.contains(event.getId())) {
+                    report.getFailed().add(new BatchWriteReport.FailedWrite(event.getId(), event.getTitle(), reason));
+                } else {
+                    report.getSaved().add(event);
+                    boolean isNew = newIds.contains(event.getId());
+                    if (isNew) {
+                        inserted++;
+                    }
+                    eventCache.onWrite(event, isNew);
+                }
             }
         }
-        return savedEvents;
+
+        if (inserted > 0) {
+            adjustCount(inserted);
+        }
+        log.info("Batch saved {} events ({} failed) in {} chunks", report.getSaved().size(), report.getFailed().size(), chunks.size());
+        return report;
+    }
+
+    private <T> List<T> writeWithRetry(List<T> items,
+                                       Function<List<T>, WriteBatch> toBatch,
+                                       Function<BatchWriteResult, List<T>> unprocessed) {
+        List<T> pending = items;
+        for (int attempt = 1; attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+            BatchWriteResult result = enhancedClient.batchWriteItem(BatchWriteItemEnhancedRequest.builder()
+                    .writeBatches(toBatch.apply(pending))
+                    .build());
+            pending = unprocessed.apply(result);
+            if (pending.isEmpty() || attempt == MAX_BATCH_ATTEMPTS) {
+                break;
+            }
+
+            log.debug("Retrying {} unprocessed items (attempt {})", pending.size(), attempt + 1);
+            if (!backoff(attempt)) {
+                break;
+            }
+        }
+        return pending;
+    }
+
+    // Returns createdAt (possibly null) for each id that already exists, read with id-only BatchGetItem projections.
+    // Throws if any id could not be checked: guessing would either skip inserts in the counter or drop createdAt.
+    private Map<String, Long> findCreatedAt(Set<String> ids) {
+        Map<String, Long> found = new HashMap<>();
+        if (ids.isEmpty()) {
+            return found;
+        }
+        try {
+            for (List<String> chunk : partition(new ArrayList<>(ids), BATCH_GET_SIZE)) {
+                Map<String, KeysAndAttributes> request = Map.of(TABLE_NAME, KeysAndAttributes.builder()
+                        .keys(chunk.stream()
+                                .map(id -> Map.of("id", AttributeValue.builder().s(id).build()))
+                                .toList())
+                        .projectionExpression("id, createdAt")
+                        .build());
+                for (int attempt = 1; !request.isEmpty() && attempt <= MAX_BATCH_ATTEMPTS; attempt++) {
+                    if (attempt > 1 && !backoff(attempt - 1)) {
+                        break;
+                    }
+                    BatchGetItemResponse response = dynamoDbClient.batchGetItem(BatchGetItemRequest.builder()
+                            .requestItems(request)
+                            .build());
+                    response.responses().getOrDefault(TABLE_NAME, List.of()).forEach(item -> found.put(
+                            item.get("id").s(),
+                            item.containsKey("createdAt") ? Long.valueOf(item.get("createdAt").n()) : null));
+                    request = response.unprocessedKeys();
+                }
+                if (!request.isEmpty()) {
+                    throw new IllegalStateException("Existing events lookup left unprocessed keys after "
+                            + MAX_BATCH_ATTEMPTS + " attempts");
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not look up existing events before batch save: {}", e.getMessage());
+            throw new RuntimeException("Failed to look up existing events", e);
+        }
+        return found;
+    }
+
+    private static boolean backoff(int attempt) {
+        long backoff = BASE_BACKOFF_MS * (1L << (attempt - 1));
+        try {
+            Thread.sleep(backoff + ThreadLocalRandom.current().nextLong(backoff));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> chunks = new ArrayList<>();
+        for (int i = 0; i < items.size(); i += size) {
+            chunks.add(items.subList(i, Math.min(i + size, items.size())));
+        }
+        return chunks;
     }
 
     public Optional<Event> findById(String id) {
         try {
-            DynamoDbTable<Event> table = getTable();
-            Key key = Key.builder().partitionValue(id).build();
-            Event event = table.getItem(key);
-            return Optional.ofNullable(event);
+            return Optional.ofNullable(eventCache.getEvent(id, this::loadById));
         } catch (Exception e) {
             log.error("Error finding event by ID {}: {}", id, e.getMessage(), e);
             return Optional.empty();
         }
     }
 
+    private Event loadById(String id) {
+        Key key = Key.builder().partitionValue(id).build();
+        return table.getItem(key);
+    }
+
     public List<Event> findAll() {
         try {
-            DynamoDbTable<Event> table = getTable();
-            return table.scan(ScanEnhancedRequest.builder().build())
-                    .items()
-                    .stream()
-                    .collect(Collectors.toList());
+            return new ArrayList<>(eventCache.getAll(this::scanAll));
         } catch (Exception e) {
             log.error("Error fetching all events: {}", e.getMessage(), e);
             return new ArrayList<>();
         }
     }
 
+    private List<Event> scanAll() {
+        return table.scan(ScanEnhancedRequest.builder().build())
+                .items()
+                .stream()
+                .collect(Collectors.toList());
+    }
+
+    // Queries the date index one day bucket at a time, so cost scales with the range instead of the table.
+    // With the cache enabled whole weeks are loaded and materialized, then trimmed to the range.
+    public List<Event> findByDateRange(LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        try {
+            if (!eventCache.isEnabled()) {
+                return queryDays(from, to);
+            }
+            List<Event> events = new ArrayList<>();
+            for (LocalDate week = EventCache.weekStart(from); !week.isAfter(to); week = week.plusWeeks(1)) {
+                for (Event event : eventCache.getWeek(week, start -> queryDays(start, start.plusDays(6)))) {
+                    LocalDate day = LocalDate.parse(event.getDateBucket());
+                    if (!day.isBefore(from) && !day.isAfter(to)) {
+                        events.add(event);
+                    }
+                }
+            }
+            return events;
+        } catch (Exception e) {
+            log.error("Error fetching events from {} to {}: {}", from, to, e.getMessage(), e);
+            return new ArrayList<>();
+        }
+    }
+
+    private List<Event> queryDays(LocalDate from, LocalDate to) {
+        DynamoDbIndex<Event> index = table.index(Event.DATE_INDEX);
+        List<Event> events = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            QueryConditional condition = QueryConditional.keyEqualTo(
+                    Key.builder().partitionValue(day.toString()).build());
+            index.query(QueryEnhancedRequest.builder().queryConditional(condition).build())
+                    .forEach(page -> events.addAll(page.items()));
+        }
+        events.sort(DATE_ORDER);
+        return events;
+    }
+
+    static void validateRange(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range cannot exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
     public boolean deleteById(String id) {
         try {
-            DynamoDbTable<Event> table = getTable();
             Key key = Key.builder().partitionValue(id).build();
-            table.deleteItem(key);
+            Event deleted = table.deleteItem(key);
+            if (deleted != null) {
+                adjustCount(-1);
+            }
+            eventCache.onDelete(id, deleted);
             log.info("Deleted event with ID: {}", id);
             return true;
         } catch (Exception e) {
@@ -138,14 +519,45 @@ public class EventRepository {
 
     public void deleteAll() {
         try {
-            List<Event> allEvents = findAll();
-            DynamoDbTable<Event> table = getTable();
-            
-            for (Event event : allEvents) {
-                Key key = Key.builder().partitionValue(event.getId()).build();
-                table.deleteItem(key);
+            List<Key> keys = new ArrayList<>();
+            table.scan(ScanEnhancedRequest.builder().attributesToProject("id").build())
+                    .items()
+                    .forEach(event -> keys.add(Key.builder().partitionValue(event.getId()).build()));
+
+            List<List<Key>> chunks = partition(keys, BATCH_SIZE);
+            List<CompletableFuture<List<Key>>> futures = chunks.stream()
+                    .map(chunk -> CompletableFuture.supplyAsync(() -> writeWithRetry(
+                            chunk,
+                            pending -> {
+                                WriteBatch.Builder<Event> batch = WriteBatch.builder(Event.class).mappedTableResource(table);
+                                pending.forEach(batch::addDeleteItem);
+                                return batch.build();
+                            },
+                            result -> result.unprocessedDeleteItemsForTable(table)), batchExecutor))
+                    .toList();
+
+            // Count down by what was actually deleted, so saves made meanwhile stay counted
+            int failed = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                int chunkFailed;
+                try {
+                    chunkFailed = futures.get(i).join().size();
+                } catch (Exception e) {
+                    log.error("Batch delete failed: {}", e.getMessage(), e);
+                    chunkFailed = chunks.get(i).size();
+                }
+                failed += chunkFailed;
+                int deleted = chunks.get(i).size() - chunkFailed;
+                if (deleted > 0) {
+                    adjustCount(-deleted);
+                }
+            }
+
+            eventCache.clear();
+            if (failed > 0) {
+                log.warn("{} events could not be deleted", failed);
             }
-            log.info("Deleted {} events", allEvents.size());
+            log.info("Deleted {} events", keys.size() - failed);
         } catch (Exception e) {
             log.error("Error deleting all events: {}", e.getMessage(), e);
         }
@@ -155,12 +567,147 @@ public class EventRepository {
         event.setUpdatedAt(System.currentTimeMillis());
         return save(event);
     }
+
+    /**
+     * Updates an existing event in a single UpdateItem call. Only non-null attributes of changes are
+     * written unless removeMissing is set, in which case null attributes are removed. createdAt is
+     * filled server-side if absent. When expectedUpdatedAt is given the write only succeeds if the
+     * stored updatedAt still matches, otherwise ConcurrentModificationException is thrown.
+     * Returns empty if no event exists with the id.
+     */
+    public Optional<Event> applyUpdate(String id, Event changes, Long expectedUpdatedAt, boolean removeMissing) {
+        Map<String, String> names = new HashMap<>();
+        Map<String, AttributeValue> values = new HashMap<>();
+        List<String> sets = new ArrayList<>();
+        List<String> removes = new ArrayList<>();
+
+        for (String attribute : EventTableSchema.SCHEMA.attributeNames()) {
+            if (SERVER_MANAGED_ATTRIBUTES.contains(attribute)) {
+                continue;
+            }
+            AttributeValue value = EventTableSchema.SCHEMA.attributeValue(changes, attribute);
+            boolean missing = value == null || Boolean.TRUE.equals(value.nul());
+            if (missing && !removeMissing) {
+                continue;
+            }
+            names.put("#" + attribute, attribute);
+            if (missing) {
+                removes.add("#" + attribute);
+            } else {
+                sets.add("#" + attribute + " = :" + attribute);
+                values.put(":" + attribute, value);
+            }
+        }
+
+        names.put("#id", "id");
+        names.put("#createdAt", "createdAt");
+        names.put("#updatedAt", "updatedAt");
+        sets.add("#createdAt = if_not_exists(#createdAt, :now)");
+        sets.add("#updatedAt = :now");
+        values.put(":now", AttributeValue.builder().n(Long.toString(System.currentTimeMillis())).build());
+
+        String condition = "attribute_exists(#id)";
+        if (expectedUpdatedAt != null) {
+            condition += " AND #updatedAt = :expectedUpdatedAt";
+            values.put(":expectedUpdatedAt", AttributeValue.builder().n(expectedUpdatedAt.toString()).build());
+        }
+
+        String updateExpression = "SET " + String.join(", ", sets);
+        if (!removes.isEmpty()) {
+            updateExpression += " REMOVE " + String.join(", ", removes);
+        }
+
+        try {
+            UpdateItemResponse response = dynamoDbClient.updateItem(UpdateItemRequest.builder()
+                    .tableName(TABLE_NAME)
+                    .key(Map.of("id", AttributeValue.builder().s(id).build()))
+                    .updateExpression(updateExpression)
+                    .conditionExpression(condition)
+                    .expressionAttributeNames(names)
+                    .expressionAttributeValues(values)
+                    .returnValues(ReturnValue.ALL_NEW)
+                    .build());
+            Event updated = EventTableSchema.SCHEMA.mapToItem(response.attributes());
+            eventCache.onWrite(updated, false);
+            log.info("Updated event: {} (ID: {})", updated.getTitle(), id);
+            return Optional.of(updated);
+        } catch (ConditionalCheckFailedException e) {
+            // Tell a missing item from a stale version; this extra read only happens on the failure path
+            Event current = expectedUpdatedAt != null ? loadById(id) : null;
+            if (current == null) {
+                return Optional.empty();
+            }
+            throw new ConcurrentModificationException(String.format(
+                    "Event %s was modified at %d, expected version %d", id, current.getUpdatedAt(), expectedUpdatedAt));
+        } catch (Exception e) {
+            log.error("Error updating event {}: {}", id, e.getMessage(), e);
+            throw new RuntimeException("Failed to update event", e);
+        }
+    }
+
+    // Served from the maintained counter item; only falls back to a COUNT scan when the counter is missing
     public long count() {
         try {
-            return findAll().size();
+            GetItemResponse response = dynamoDbClient.getItem(GetItemRequest.builder()
+                    .tableName(COUNTER_TABLE_NAME)
+                    .key(counterKey())
+                    .consistentRead(true)
+                    .build());
+            if (!response.hasItem() || !response.item().containsKey(COUNT_ATTRIBUTE)) {
+                return recount();
+            }
+            return Long.parseLong(response.item().get(COUNT_ATTRIBUTE).n());
         } catch (Exception e) {
             log.error("Error counting events: {}", e.getMessage(), e);
             return 0;
         }
     }
+
+    private long recount() {
+        long total = 0;
+        ScanRequest scanRequest = ScanRequest.builder()
+                .tableName(TABLE_NAME)
+                .select(Select.COUNT)
+                .build();
+        for (ScanResponse page : dynamoDbClient.scanPaginator(scanRequest)) {
+            total += page.count();
+        }
+        resetCount(total);
+        log.info("Recounted {} events", total);
+        return total;
+    }
+
+    private void adjustCount(long delta) {
+        try {
+            dynamoDbClient.updateItem(counterAdjustment(delta));
+        } catch (Exception e) {
+            log.warn("Failed to adjust event counter by {}: {}", delta, e.getMessage());
+        }
+    }
+
+    private void resetCount(long value) {
+        try {
+            dynamoDbClient.putItem(PutItemRequest.builder()
+                    .tableName(COUNTER_TABLE_NAME)
+                    .item(Map.of(
+                            "name", AttributeValue.builder().s(COUNTER_NAME).build(),
+                            COUNT_ATTRIBUTE, AttributeValue.builder().n(Long.toString(value)).build()))
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to reset event counter: {}", e.getMessage());
+        }
+    }
+
+    static UpdateItemRequest counterAdjustment(long delta) {
+        return UpdateItemRequest.builder()
+                .tableName(COUNTER_TABLE_NAME)
+                .key(counterKey())
+                .updateExpression("ADD " + COUNT_ATTRIBUTE + " :delta")
+                .expressionAttributeValues(Map.of(":delta", AttributeValue.builder().n(Long.toString(delta)).build()))
+                .build();
+    }
+
+    static Map<String, AttributeValue> counterKey() {
+        return Map.of("name", AttributeValue.builder().s(COUNTER_NAME).build());
+    }
 }
\ No newline at end of file
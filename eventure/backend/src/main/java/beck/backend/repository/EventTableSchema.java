@@ -0,0 +1,59 @@
+package beck.backend.repository;
+import beck.backend.model.Event;
+import software.amazon.awssdk.enhanced.dynamodb.EnhancedType;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticAttributeTags;
+import software.amazon.awssdk.enhanced.dynamodb.mapper.StaticTableSchema;
+
+/**
+ * Hand-built schema for the Events table. Unlike TableSchema.fromBean it needs no reflective
+ * bean introspection, so it is built once at class load and shared by every table handle.
+ * Keep it in sync with the attributes declared on {@link Event}.
+ */
+final class EventTableSchema {
+
+    static final TableSchema<Event> SCHEMA = StaticTableSchema.builder(Event.class)
+            .newItemSupplier(Event::new)
+            .addAttribute(String.class, a -> a.name("id")
+                    .getter(Event::getId)
+                    .setter(Event::setId)
+                    .tags(StaticAttributeTags.primaryPartitionKey()))
+            .addAttribute(String.class, a -> a.name("title")
+                    .getter(Event::getTitle)
+                    .setter(Event::setTitle))
+            .addAttribute(EnhancedType.listOf(Integer.class), a -> a.name("date")
+                    .getter(Event::getDate)
+                    .setter(Event::setDate))
+            .addAttribute(String.class, a -> a.name("dateBucket")
+                    .getter(Event::getDateBucket)
+                    .setter(Event::setDateBucket)
+                    .tags(StaticAttributeTags.secondaryPartitionKey(Event.DATE_INDEX)))
+            .addAttribute(Integer.class, a -> a.name("startTime")
+                    .getter(Event::getStartTime)
+                    .setter(Event::setStartTime))
+            .addAttribute(Integer.class, a -> a.name("endTime")
+                    .getter(Event::getEndTime)
+                    .setter(Event::setEndTime))
+            .addAttribute(String.class, a -> a.name("address")
+                    .getter(Event::getAddress)
+                    .setter(Event::setAddress))
+            .addAttribute(String.class, a -> a.name("description")
+                    .getter(Event::getDescription)
+                    .setter(Event::setDescription))
+            .addAttribute(Boolean.class, a -> a.name("timeSensitive")
+                    .getter(Event::getTimeSensitive)
+                    .setter(Event::setTimeSensitive))
+            .addAttribute(String.class, a -> a.name("url")
+                    .getter(Event::getUrl)
+                    .setter(Event::setUrl))
+            .addAttribute(Long.class, a -> a.name("createdAt")
+                    .getter(Event::getCreatedAt)
+                    .setter(Event::setCreatedAt))
+            .addAttribute(Long.class, a -> a.name("updatedAt")
+                    .getter(Event::getUpdatedAt)
+                    .setter(Event::setUpdatedAt))
+            .build();
+
+    private EventTableSchema() {
+    }
+}
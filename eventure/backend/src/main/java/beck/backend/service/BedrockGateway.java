@@ -0,0 +1,268 @@
+package beck.backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Guards every Bedrock call. A semaphore bounds calls in flight, throttling and 5xx errors are retried
+ * with jittered backoff whose base grows while Bedrock keeps throttling and shrinks again on success,
+ * and a circuit breaker fails fast after repeated failures until a trial call gets through.
+ * The SDK's own retries are disabled on the Bedrock clients so this is the only retry layer.
+ */
+@Slf4j
+@Component
+public class BedrockGateway {
+
+    public static class BedrockUnavailableException extends RuntimeException {
+        public BedrockUnavailableException(String message) {
+            super(message);
+        }
+    }
+
+    private enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    private final Semaphore permits;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer queueWait;
+    private final Counter throttles;
+    private final Counter rejected;
+
+    @Value("${bedrock.gateway.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    @Value("${bedrock.gateway.call-timeout-ms:90000}")
+    private long callTimeoutMs;
+
+    @Value("${bedrock.gateway.max-attempts:4}")
+    private int maxAttempts;
+
+    @Value("${bedrock.gateway.base-backoff-ms:500}")
+    private long baseBackoffMs;
+
+    @Value("${bedrock.gateway.max-backoff-ms:20000}")
+    private long maxBackoffMs;
+
+    @Value("${bedrock.gateway.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${bedrock.gateway.open-ms:30000}")
+    private long openMs;
+
+    // Multiplier on the backoff base; doubled per throttle, halved per success
+    private double throttlePressure = 1.0;
+    private CircuitState state = CircuitState.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    public BedrockGateway(MeterRegistry meterRegistry, @Value("${bedrock.gateway.max-concurrency:4}") int maxConcurrency) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.queueWait = Timer.builder("bedrock.queue.wait")
+                .description("Time spent waiting for a Bedrock call permit")
+                .register(meterRegistry);
+        this.throttles = meterRegistry.counter("bedrock.throttles");
+        this.rejected = meterRegistry.counter("bedrock.circuit.rejected");
+        meterRegistry.gauge("bedrock.calls.inflight", inFlight);
+        meterRegistry.gauge("bedrock.circuit.open", this, gateway -> gateway.isOpen() ? 1 : 0);
+    }
+
+    public Duration callTimeout() {
+        return Duration.ofMillis(callTimeoutMs);
+    }
+
+    /** Runs a blocking call under a permit, retrying throttles and server errors. */
+    public <T> T execute(Supplier<T> call) {
+        boolean trial = checkCircuit();
+        try {
+            acquire();
+            try {
+                for (int attempt = 1; ; attempt++) {
+                    try {
+                        T result = call.get();
+                        onSuccess();
+                        return result;
+                    } catch (RuntimeException e) {
+                        // Client errors (validation, access) say nothing about Bedrock's health
+                        if (!isRetryable(e)) {
+                            throw e;
+                        }
+                        if (attempt >= maxAttempts) {
+                            onFailure();
+                            throw e;
+                        }
+                        long delay = backoff(attempt, e);
+                        log.warn("Bedrock call failed (attempt {}/{}), retrying in {} ms: {}", attempt, maxAttempts, delay, e.getMessage());
+                        sleep(delay);
+                    }
+                }
+            } finally {
+                release();
+            }
+        } finally {
+            // However the trial ended, the next call may try again
+            if (trial) {
+                endTrial();
+            }
+        }
+    }
+
+    /**
+     * Runs an asynchronous call under a permit held until the future completes. Not retried: a stream
+     * may already have handed partial output to the caller when it fails.
+     */
+    public <T> CompletableFuture<T> executeAsync(Supplier<CompletableFuture<T>> call) {
+        boolean trial = checkCircuit();
+        CompletableFuture<T> future;
+        try {
+            acquire();
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                release();
+                recordOutcome(e);
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            if (trial) {
+                endTrial();
+            }
+            throw e;
+        }
+        return future.whenComplete((result, error) -> {
+            release();
+            recordOutcome(error);
+            if (trial) {
+                endTrial();
+            }
+        });
+    }
+
+    // Success closes the circuit, retryable errors count towards opening it, anything else is neutral
+    private void recordOutcome(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause == null) {
+            onSuccess();
+        } else if (isRetryable(cause)) {
+            if (cause instanceof SdkServiceException service && service.isThrottlingException()) {
+                onThrottle();
+            }
+            onFailure();
+        }
+    }
+
+    private void acquire() {
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new BedrockUnavailableException("Timed out waiting for a Bedrock call slot");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BedrockUnavailableException("Interrupted waiting for a Bedrock call slot");
+        } finally {
+            queueWait.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        inFlight.incrementAndGet();
+    }
+
+    private void release() {
+        inFlight.decrementAndGet();
+        permits.release();
+    }
+
+    private boolean isRetryable(Throwable e) {
+        if (e instanceof SdkServiceException service) {
+            return service.isThrottlingException() || service.statusCode() >= 500;
+        }
+        return e instanceof ApiCallTimeoutException
+                || e instanceof ApiCallAttemptTimeoutException
+                || e instanceof SdkClientException;
+    }
+
+    private long backoff(int attempt, RuntimeException e) {
+        if (e instanceof SdkServiceException service && service.isThrottlingException()) {
+            onThrottle();
+        }
+        double base;
+        synchronized (this) {
+            base = baseBackoffMs * throttlePressure;
+        }
+        long ceiling = (long) Math.min(maxBackoffMs, base * (1L << Math.min(attempt - 1, 10)));
+        // Full jitter (anywhere in 0..ceiling) so concurrent retries don't line up again
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    private synchronized void onThrottle() {
+        throttles.increment();
+        throttlePressure = Math.min(throttlePressure * 2, 16);
+    }
+
+    /** Rejects the call while the circuit is open; returns true if the call is the half-open trial. */
+    private synchronized boolean checkCircuit() {
+        if (state == CircuitState.OPEN && System.currentTimeMillis() - openedAt >= openMs) {
+            state = CircuitState.HALF_OPEN;
+            trialInFlight = false;
+        }
+        if (state == CircuitState.OPEN || state == CircuitState.HALF_OPEN && trialInFlight) {
+            rejected.increment();
+            throw new BedrockUnavailableException("Bedrock is unavailable, try again shortly");
+        }
+        if (state == CircuitState.HALF_OPEN) {
+            trialInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    private synchronized void endTrial() {
+        trialInFlight = false;
+    }
+
+    private synchronized void onSuccess() {
+        throttlePressure = Math.max(1.0, throttlePressure / 2);
+        consecutiveFailures = 0;
+        if (state != CircuitState.CLOSED) {
+            log.info("Bedrock circuit closed");
+            state = CircuitState.CLOSED;
+        }
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold && state == CircuitState.CLOSED) {
+            log.warn("Bedrock circuit opened after {} consecutive failures", consecutiveFailures);
+            state = CircuitState.OPEN;
+            openedAt = System.currentTimeMillis();
+        }
+    }
+
+    private synchronized boolean isOpen() {
+        return state == CircuitState.OPEN;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BedrockUnavailableException("Interrupted while backing off");
+        }
+    }
+}
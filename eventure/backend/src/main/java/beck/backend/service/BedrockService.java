@@ -1,40 +1,47 @@
 package beck.backend.service;
 import beck.backend.model.ChatRequest;
 import beck.backend.model.ChatResponse;
+import beck.backend.model.TokenUsage;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
 import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
 import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithResponseStreamRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelWithResponseStreamResponseHandler;
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
 //helllo!!
 @Slf4j
 @Service
+@Profile("!local-llm")
 @RequiredArgsConstructor
-public class BedrockService {
+public class BedrockService implements LlmService {
 
     private final BedrockRuntimeClient bedrockClient;
+    private final BedrockRuntimeAsyncClient bedrockAsyncClient;
+    private final BedrockGateway bedrockGateway;
+    private final MeterRegistry meterRegistry;
 
+    // Lets prompt caching be switched off without touching callers that set cacheSystem
+    @Value("${bedrock.prompt-cache.enabled:true}")
+    private boolean promptCacheEnabled;
+
+    @Override
     public ChatResponse chat(ChatRequest request) {
         try {
             log.info("Invoking Bedrock with model: {}", request.getModelId());
-            
-            // Claude 3.5
-            JSONObject message = new JSONObject();
-            message.put("role", "user");
-            message.put("content", request.getMessage());
-
-            JSONArray messages = new JSONArray();
-            messages.put(message);
-
-            JSONObject requestBody = new JSONObject();
-            requestBody.put("anthropic_version", "bedrock-2023-05-31");
-            requestBody.put("max_tokens", request.getMaxTokens());
-            requestBody.put("messages", messages);
-            requestBody.put("temperature", request.getTemperature());
+            JSONObject requestBody = buildRequestBody(request);
 
             log.debug("Request body: {}", requestBody.toString());
             InvokeModelRequest invokeRequest = InvokeModelRequest.builder()
@@ -42,9 +49,10 @@ public class BedrockService {
                     .contentType("application/json")
                     .accept("application/json")
                     .body(SdkBytes.fromUtf8String(requestBody.toString()))
+                    .overrideConfiguration(o -> o.apiCallTimeout(bedrockGateway.callTimeout()))
                     .build();
 
-            InvokeModelResponse response = bedrockClient.invokeModel(invokeRequest);
+            InvokeModelResponse response = bedrockGateway.execute(() -> bedrockClient.invokeModel(invokeRequest));
             
             String responseBody = response.body().asUtf8String();
             log.debug("Response body: {}", responseBody);
@@ -54,11 +62,169 @@ public class BedrockService {
                     .getJSONObject(0)
                     .getString("text");
 
-            return new ChatResponse(text, request.getModelId());
+            ChatResponse chatResponse = new ChatResponse(text, request.getModelId());
+            chatResponse.setUsage(recordUsage(toUsage(jsonResponse.optJSONObject("usage"))));
+            return chatResponse;
             
+        } catch (BedrockGateway.BedrockUnavailableException e) {
+            log.warn("Bedrock call not attempted: {}", e.getMessage());
+            return ChatResponse.error(e.getMessage());
         } catch (Exception e) {
             log.error("Error invoking Bedrock: {}", e.getMessage(), e);
             return ChatResponse.error("Failed to get response from AI: " + e.getMessage());
         }
     }
+
+    /**
+     * Forces the model to answer by calling the given tool, so the reply is a JSON object shaped by the
+     * tool's input schema instead of free text. The raw response body is handed to reader unparsed.
+     */
+    @Override
+    public <T> T invokeTool(ChatRequest request, String toolSpec, String toolName, Function<InputStream, T> reader) {
+        log.info("Invoking Bedrock tool {} with model: {}", toolName, request.getModelId());
+        JSONObject requestBody = buildRequestBody(request);
+        requestBody.put("tools", new JSONArray().put(new JSONObject(toolSpec)));
+        requestBody.put("tool_choice", new JSONObject().put("type", "tool").put("name", toolName));
+
+        InvokeModelRequest invokeRequest = InvokeModelRequest.builder()
+                .modelId(request.getModelId())
+                .contentType("application/json")
+                .accept("application/json")
+                .body(SdkBytes.fromUtf8String(requestBody.toString()))
+                .overrideConfiguration(o -> o.apiCallTimeout(bedrockGateway.callTimeout()))
+                .build();
+
+        InvokeModelResponse response = bedrockGateway.execute(() -> bedrockClient.invokeModel(invokeRequest));
+        return reader.apply(response.body().asInputStream());
+    }
+
+    /**
+     * Streams the completion, passing each text delta to onText as it arrives. The returned future
+     * completes with the full text once the stream ends, or with an error response.
+     */
+    @Override
+    public CompletableFuture<ChatResponse> chatStream(ChatRequest request, Consumer<String> onText) {
+        log.info("Invoking Bedrock (streaming) with model: {}", request.getModelId());
+        InvokeModelWithResponseStreamRequest invokeRequest = InvokeModelWithResponseStreamRequest.builder()
+                .modelId(request.getModelId())
+                .contentType("application/json")
+                .accept("application/json")
+                .body(SdkBytes.fromUtf8String(buildRequestBody(request).toString()))
+                .overrideConfiguration(o -> o.apiCallTimeout(bedrockGateway.callTimeout()))
+                .build();
+
+        StringBuilder text = new StringBuilder();
+        TokenUsage usage = new TokenUsage();
+        InvokeModelWithResponseStreamResponseHandler handler = InvokeModelWithResponseStreamResponseHandler.builder()
+                .subscriber(InvokeModelWithResponseStreamResponseHandler.Visitor.builder()
+                        .onChunk(chunk -> {
+                            JSONObject event = new JSONObject(chunk.bytes().asUtf8String());
+                            String type = event.optString("type");
+                            // Input and cache counts arrive with message_start, output tokens with message_delta
+                            if ("message_start".equals(type)) {
+                                TokenUsage start = toUsage(event.getJSONObject("message").optJSONObject("usage"));
+                                usage.setInputTokens(start.getInputTokens());
+                                usage.setCacheReadInputTokens(start.getCacheReadInputTokens());
+                                usage.setCacheCreationInputTokens(start.getCacheCreationInputTokens());
+                                return;
+                            }
+                            if ("message_delta".equals(type)) {
+                                usage.setOutputTokens(toUsage(event.optJSONObject("usage")).getOutputTokens());
+                                return;
+                            }
+                            if (!"content_block_delta".equals(type)) {
+                                return;
+                            }
+                            JSONObject delta = event.getJSONObject("delta");
+                            if ("text_delta".equals(delta.optString("type"))) {
+                                String part = delta.getString("text");
+                                text.append(part);
+                                onText.accept(part);
+                            }
+                        })
+                        .build())
+                .build();
+
+        try {
+            return bedrockGateway.executeAsync(() -> bedrockAsyncClient.invokeModelWithResponseStream(invokeRequest, handler))
+                    .thenApply(ignored -> {
+                        ChatResponse chatResponse = new ChatResponse(text.toString(), request.getModelId());
+                        chatResponse.setUsage(recordUsage(usage));
+                        return chatResponse;
+                    })
+                    .exceptionally(e -> {
+                        log.error("Error streaming from Bedrock: {}", e.getMessage(), e);
+                        return ChatResponse.error("Failed to get response from AI: " + e.getMessage());
+                    });
+        } catch (BedrockGateway.BedrockUnavailableException e) {
+            log.warn("Bedrock stream not attempted: {}", e.getMessage());
+            return CompletableFuture.completedFuture(ChatResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error streaming from Bedrock: {}", e.getMessage(), e);
+            return CompletableFuture.completedFuture(ChatResponse.error("Failed to get response from AI: " + e.getMessage()));
+        }
+    }
+
+    private JSONObject buildRequestBody(ChatRequest request) {
+        // Claude 3.5
+        JSONObject message = new JSONObject();
+        message.put("role", "user");
+        message.put("content", request.getMessage());
+
+        JSONArray messages = new JSONArray();
+        messages.put(message);
+
+        JSONObject requestBody = new JSONObject();
+        requestBody.put("anthropic_version", "bedrock-2023-05-31");
+        requestBody.put("max_tokens", request.getMaxTokens());
+        requestBody.put("messages", messages);
+        requestBody.put("temperature", request.getTemperature());
+        if (request.getSystem() != null) {
+            JSONObject system = new JSONObject();
+            system.put("type", "text");
+            system.put("text", request.getSystem());
+            if (promptCacheEnabled && request.isCacheSystem()) {
+                // Cache checkpoint after the system block: tools + system become a reusable prefix. Bedrock
+                // only caches a prefix of at least the model's minimum (1,024 tokens for Claude 3.5 Sonnet)
+                // and silently ignores the marker below that, so short prompts simply report no cache use
+                system.put("cache_control", new JSONObject().put("type", "ephemeral"));
+            }
+            requestBody.put("system", new JSONArray().put(system));
+        }
+        return requestBody;
+    }
+
+    /** Adds a call's token counts to the bedrock.tokens counters and the prompt cache hit/miss counters. */
+    @Override
+    public TokenUsage recordUsage(TokenUsage usage) {
+        if (usage == null) {
+            return null;
+        }
+        countTokens(meterRegistry, usage);
+        log.info("Bedrock usage: {} input ({} cached, {} written to cache), {} output tokens",
+                usage.getInputTokens(), usage.getCacheReadInputTokens(), usage.getCacheCreationInputTokens(),
+                usage.getOutputTokens());
+        return usage;
+    }
+
+    static void countTokens(MeterRegistry meterRegistry, TokenUsage usage) {
+        meterRegistry.counter("bedrock.tokens", "type", "input").increment(usage.getInputTokens());
+        meterRegistry.counter("bedrock.tokens", "type", "output").increment(usage.getOutputTokens());
+        meterRegistry.counter("bedrock.tokens", "type", "cache_read").increment(usage.getCacheReadInputTokens());
+        meterRegistry.counter("bedrock.tokens", "type", "cache_write").increment(usage.getCacheCreationInputTokens());
+        String result = usage.getCacheReadInputTokens() > 0 ? "hit"
+                : usage.getCacheCreationInputTokens() > 0 ? "write" : "none";
+        meterRegistry.counter("bedrock.prompt.cache", "result", result).increment();
+    }
+
+    private static TokenUsage toUsage(JSONObject usage) {
+        if (usage == null) {
+            return new TokenUsage();
+        }
+        return new TokenUsage(
+                usage.optInt("input_tokens"),
+                usage.optInt("output_tokens"),
+                usage.optInt("cache_read_input_tokens"),
+                usage.optInt("cache_creation_input_tokens"));
+    }
 }
\ No newline at end of file
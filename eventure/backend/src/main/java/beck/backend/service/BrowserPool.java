@@ -0,0 +1,178 @@
+package beck.backend.service;
+
+import io.github.bonigarcia.wdm.WebDriverManager;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Bounded pool of warm headless Chrome sessions. At most pool-size browsers exist at once;
+ * callers wait up to acquire-timeout-ms for one. Sessions are health-checked on borrow and
+ * recycled after max-pages-per-session pages or when a caller marks them broken.
+ */
+@Slf4j
+@Component
+public class BrowserPool {
+
+    @Value("${scraper.browser.pool-size:2}")
+    private int poolSize;
+
+    @Value("${scraper.browser.acquire-timeout-ms:30000}")
+    private long acquireTimeoutMs;
+
+    @Value("${scraper.browser.max-pages-per-session:50}")
+    private int maxPagesPerSession;
+
+    private final BlockingDeque<PooledBrowser> idle = new LinkedBlockingDeque<>();
+    private Semaphore permits;
+    private volatile boolean driverReady;
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(poolSize, true);
+        try {
+            setupDriver();
+        } catch (Exception e) {
+            log.warn("ChromeDriver setup failed, retrying on first scrape: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shuttingDown = true;
+        PooledBrowser browser;
+        while ((browser = idle.pollFirst()) != null) {
+            browser.quit();
+        }
+    }
+
+    public Lease acquire() throws InterruptedException, TimeoutException {
+        if (!permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+            throw new TimeoutException("No browser available within " + acquireTimeoutMs + " ms");
+        }
+        try {
+            PooledBrowser browser;
+            // Most recently used first, so the warmest sessions get reused
+            while ((browser = idle.pollFirst()) != null) {
+                if (browser.isHealthy()) {
+                    return new Lease(browser);
+                }
+                log.info("Discarding unhealthy browser session after {} pages", browser.pages);
+                browser.quit();
+            }
+            return new Lease(newBrowser());
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private synchronized void setupDriver() {
+        if (!driverReady) {
+            WebDriverManager.chromedriver().setup();
+            driverReady = true;
+        }
+    }
+
+    private PooledBrowser newBrowser() {
+        setupDriver();
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments("--headless=new");
+        options.addArguments("--disable-gpu");
+        options.addArguments("--no-sandbox");
+        options.addArguments("--disable-dev-shm-usage");
+        options.addArguments("--window-size=1920,1080");
+        log.info("Starting new browser session");
+        ChromeDriver driver = new ChromeDriver(options);
+        try {
+            driver.executeCdpCommand("Page.addScriptToEvaluateOnNewDocument",
+                    Map.of("source", PageReadinessWaiter.INSTRUMENTATION_SCRIPT));
+        } catch (Exception e) {
+            log.warn("Could not install page instrumentation, readiness falls back to text stability: {}", e.getMessage());
+        }
+        return new PooledBrowser(driver);
+    }
+
+    private void release(PooledBrowser browser, boolean broken) {
+        try {
+            browser.pages++;
+            if (broken || shuttingDown || browser.pages >= maxPagesPerSession || !browser.reset()) {
+                browser.quit();
+            } else {
+                idle.offerFirst(browser);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    public final class Lease implements AutoCloseable {
+        private final PooledBrowser browser;
+        private boolean broken;
+
+        private Lease(PooledBrowser browser) {
+            this.browser = browser;
+        }
+
+        public WebDriver driver() {
+            return browser.driver;
+        }
+
+        // The session is quit instead of returned to the pool
+        public void markBroken() {
+            broken = true;
+        }
+
+        @Override
+        public void close() {
+            release(browser, broken);
+        }
+    }
+
+    private static class PooledBrowser {
+        final ChromeDriver driver;
+        int pages;
+
+        PooledBrowser(ChromeDriver driver) {
+            this.driver = driver;
+        }
+
+        boolean isHealthy() {
+            try {
+                driver.getWindowHandle();
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        // Drops page state between scrapes so the next caller starts clean
+        boolean reset() {
+            try {
+                driver.manage().deleteAllCookies();
+                driver.get("about:blank");
+                return true;
+            } catch (Exception e) {
+                return false;
+            }
+        }
+
+        void quit() {
+            try {
+                driver.quit();
+            } catch (Exception ignored) {}
+        }
+    }
+}
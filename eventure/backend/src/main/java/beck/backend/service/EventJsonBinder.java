@@ -0,0 +1,219 @@
+package beck.backend.service;
+
+import beck.backend.model.Event;
+import beck.backend.model.TokenUsage;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binds the events of a "record_events" tool call straight from the Bedrock response body to
+ * {@link Event}s with one streaming pass, without building an intermediate JSON tree. Objects
+ * that break the schema are skipped or have the offending field dropped.
+ */
+@Slf4j
+final class EventJsonBinder {
+
+    static final String TOOL_NAME = "record_events";
+
+    static final String TOOL_SPEC = """
+            {
+              "name": "record_events",
+              "description": "Record every event found on the page.",
+              "input_schema": {
+                "type": "object",
+                "properties": {
+                  "events": {
+                    "type": "array",
+                    "items": {
+                      "type": "object",
+                      "properties": {
+                        "title": {"type": "string"},
+                        "date": {"type": "array", "items": {"type": "integer"}, "minItems": 3, "maxItems": 3,
+                                 "description": "[month, day, year]"},
+                        "startTime": {"type": "integer", "minimum": 0, "maximum": 1439,
+                                      "description": "Minutes after midnight"},
+                        "endTime": {"type": "integer", "minimum": 0, "maximum": 1439,
+                                    "description": "Minutes after midnight"},
+                        "address": {"type": "string"},
+                        "note": {"type": "string", "description": "Two or three sentence summary"}
+                      },
+                      "required": ["title"]
+                    }
+                  }
+                },
+                "required": ["events"]
+              }
+            }
+            """;
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    record ToolEvents(List<Event> events, TokenUsage usage) {
+    }
+
+    private EventJsonBinder() {
+    }
+
+    /** Reads the tool input out of an InvokeModel response body (content[*].input.events[*]) and its usage. */
+    static ToolEvents readToolEvents(InputStream body, String sourceUrl) {
+        List<Event> events = new ArrayList<>();
+        TokenUsage usage = new TokenUsage();
+        try (JsonParser parser = FACTORY.createParser(body)) {
+            expect(parser.nextToken(), JsonToken.START_OBJECT);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if ("content".equals(field) && value == JsonToken.START_ARRAY) {
+                    while (parser.nextToken() == JsonToken.START_OBJECT) {
+                        readContentBlock(parser, sourceUrl, events);
+                    }
+                } else if ("usage".equals(field) && value == JsonToken.START_OBJECT) {
+                    readUsage(parser, usage);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable tool response", e);
+        }
+        return new ToolEvents(events, usage);
+    }
+
+    private static void readUsage(JsonParser parser, TokenUsage usage) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            if (parser.nextToken() != JsonToken.VALUE_NUMBER_INT) {
+                parser.skipChildren();
+                continue;
+            }
+            int count = parser.getIntValue();
+            switch (field) {
+                case "input_tokens" -> usage.setInputTokens(count);
+                case "output_tokens" -> usage.setOutputTokens(count);
+                case "cache_read_input_tokens" -> usage.setCacheReadInputTokens(count);
+                case "cache_creation_input_tokens" -> usage.setCacheCreationInputTokens(count);
+                default -> {
+                }
+            }
+        }
+    }
+
+    private static void readContentBlock(JsonParser parser, String sourceUrl, List<Event> events) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            // Only tool_use blocks carry an input object
+            if ("input".equals(field) && value == JsonToken.START_OBJECT) {
+                readToolInput(parser, sourceUrl, events);
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readToolInput(JsonParser parser, String sourceUrl, List<Event> events) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if ("events".equals(field) && value == JsonToken.START_ARRAY) {
+                JsonToken item;
+                while ((item = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (item != JsonToken.START_OBJECT) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    Event event = readEvent(parser, sourceUrl);
+                    if (event != null) {
+                        events.add(event);
+                    }
+                }
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static Event readEvent(JsonParser parser, String sourceUrl) throws IOException {
+        Event event = new Event();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.VALUE_NULL) {
+                continue;
+            }
+            switch (field) {
+                case "title" -> event.setTitle(readString(parser, value));
+                case "date" -> event.setDate(readDate(parser, value));
+                case "startTime" -> event.setStartTime(readMinutes(parser, value));
+                case "endTime" -> event.setEndTime(readMinutes(parser, value));
+                case "address" -> event.setAddress(readString(parser, value));
+                case "note" -> event.setNote(readString(parser, value));
+                default -> parser.skipChildren();
+            }
+        }
+
+        if (event.getTitle() == null || event.getTitle().isBlank()) {
+            log.warn("Skipping extracted event without a title");
+            return null;
+        }
+        event.setTitle(event.getTitle() + "*");
+        event.setUrl(sourceUrl);
+        event.setTimeSensitive(event.getStartTime() != null && event.getStartTime() > 0);
+        return event;
+    }
+
+    private static String readString(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_STRING) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+
+    private static List<Integer> readDate(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return null;
+        }
+        List<Integer> date = new ArrayList<>(3);
+        JsonToken part;
+        while ((part = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (part == JsonToken.VALUE_NUMBER_INT) {
+                date.add(parser.getIntValue());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        boolean valid = date.size() == 3
+                && date.get(0) >= 1 && date.get(0) <= 12
+                && date.get(1) >= 1 && date.get(1) <= 31;
+        if (!valid) {
+            log.warn("Dropping malformed extracted date {}", date);
+            return null;
+        }
+        return date;
+    }
+
+    private static Integer readMinutes(JsonParser parser, JsonToken value) throws IOException {
+        if (value != JsonToken.VALUE_NUMBER_INT) {
+            parser.skipChildren();
+            return null;
+        }
+        int minutes = parser.getIntValue();
+        return minutes >= 0 && minutes < 24 * 60 ? minutes : null;
+    }
+
+    private static void expect(JsonToken actual, JsonToken expected) throws IOException {
+        if (actual != expected) {
+            throw new IOException("Expected " + expected + " but found " + actual);
+        }
+    }
+}
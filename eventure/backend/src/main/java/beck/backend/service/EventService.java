@@ -1,38 +1,114 @@
 package beck.backend.service;
 
+import beck.backend.model.BatchWriteReport;
 import beck.backend.model.ChatRequest;
 import beck.backend.model.ChatResponse;
 import beck.backend.model.Event;
+import beck.backend.model.ScrapeJob;
+import beck.backend.repository.AsyncEventRepository;
 import beck.backend.repository.EventRepository;
-import io.github.bonigarcia.wdm.WebDriverManager;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.openqa.selenium.By;
-import org.openqa.selenium.WebDriver;
-import org.openqa.selenium.chrome.ChromeDriver;
-import org.openqa.selenium.chrome.ChromeOptions;
-import org.openqa.selenium.support.ui.ExpectedConditions;
-import org.openqa.selenium.support.ui.WebDriverWait;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class EventService {
 
+    private static final String EXTRACTION_RULES =
+        "Each event should have: title, date, startTime, endTime, address, note. " +
+        "If the information is not directly written, leave the slot as empty. " +
+        "For example, if it is written as online, TBD, soon, absolutely do not put it. " +
+        "For time, put it as military time, but only in minutes, meaning if it is 01:00, it would be 60. " +
+        "If it is 13:30, it would be 810 (13*60 + 30). " +
+        "For location, if it is too specific, try adding city and country name if relevant information exists. " +
+        "In the note, summarize the event in two or 3 sentences. " +
+        "For date, use numbers only and if its september, put it as 9, not 09. ";
+
+    // Sent as a cached system prompt, so these must stay byte-identical between calls; the page goes in the message
+    private static final String STRUCTURED_INSTRUCTIONS =
+        "You are an AI assistant. Extract all events from the txt page in the user message and record them with the " +
+        EventJsonBinder.TOOL_NAME + " tool. " + EXTRACTION_RULES;
+
+    private static final String TEXT_INSTRUCTIONS =
+        "You are an AI assistant. Extract all events from the txt page in the user message. " + EXTRACTION_RULES +
+        "Output ONLY the JSON array, no other text. Output as JSON array like:\n" +
+        "[\n" +
+        "  {\n" +
+        "    \"title\": \"...\",\n" +
+        "    \"date\": [month, day, year],\n" +
+        "    \"startTime\": 60,\n" +
+        "    \"endTime\": 120,\n" +
+        "    \"address\": \"...\",\n" +
+        "    \"note\": \"...\"\n" +
+        "  }\n" +
+        "]";
+
     private final EventRepository eventRepository;
-    private final BedrockService bedrockService;
+    private final LlmService llmService;
+    private final PageFetchService pageFetchService;
+    private final TextReducer textReducer;
+    private final ObjectProvider<AsyncEventRepository> asyncEventRepository;
+
+    // Extraction results keyed by a hash of the normalized page text, so unchanged pages skip Bedrock
+    private final Cache<String, List<Event>> extractionCache = Caffeine.newBuilder()
+        .maximumSize(500)
+        .expireAfterWrite(Duration.ofHours(24))
+        .build();
+
+    @Value("${scraper.extraction.chunk-chars:15000}")
+    private int chunkChars;
+
+    @Value("${scraper.extraction.chunk-overlap-chars:500}")
+    private int chunkOverlapChars;
+
+    @Value("${scraper.extraction.max-chunks:20}")
+    private int maxChunks;
+
+    @Value("${scraper.extraction.max-in-flight:4}")
+    private int maxInFlight;
+
+    // "structured" has the model fill a tool schema; "text" asks for a JSON array in the reply text
+    @Value("${scraper.extraction.mode:structured}")
+    private String extractionMode;
+
+    // Shared by all scrapes, so it also caps concurrent Bedrock extraction calls process-wide
+    private ExecutorService extractionExecutor;
 
     @PostConstruct
     public void init() {
         eventRepository.createTableIfNotExists();
+        extractionExecutor = Executors.newFixedThreadPool(maxInFlight);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        extractionExecutor.shutdown();
     }
 
     public Event addEvent(Event event) {
@@ -40,18 +116,27 @@ public class EventService {
         log.info("Manually added event: {} (ID: {})", saved.getTitle(), saved.getId());
         return saved;
     }
+
+    public CompletableFuture<Event> addEventAsync(Event event) {
+        AsyncEventRepository async = asyncEventRepository.getIfAvailable();
+        if (async == null) {
+            return CompletableFuture.completedFuture(addEvent(event));
+        }
+        return async.save(event);
+    }
+
     public Optional<Event> getEventById(String id) {
         return eventRepository.findById(id);  // ✅ FIXED - using instance not static
     }
 
     public Event updateEvent(String id, Event updatedEvent) {
-        Optional<Event> existing = eventRepository.findById(id);
-        if (existing.isPresent()) {
-            updatedEvent.setId(id);
-            updatedEvent.setCreatedAt(existing.get().getCreatedAt());
-            return eventRepository.update(updatedEvent);
-        }
-        throw new RuntimeException("Event not found with ID: " + id);
+        return eventRepository.applyUpdate(id, updatedEvent, null, true)
+            .orElseThrow(() -> new RuntimeException("Event not found with ID: " + id));
+    }
+
+    // updatedAt on the patch body is the version the client last read; a newer stored version is a conflict
+    public Optional<Event> patchEvent(String id, Event changes) {
+        return eventRepository.applyUpdate(id, changes, changes.getUpdatedAt(), false);
     }
 
     public boolean deleteEvent(String id) {
@@ -65,66 +150,148 @@ public class EventService {
         event.setTimeSensitive(false);
         return event;
     }
+    // Synchronous endpoint: failures come back as a single placeholder event
     public List<Event> scrapeFromUrl(String url) {
+        try {
+            return scrapeFromUrl(url, status -> {}, null);
+        } catch (Exception e) {
+            log.error("Error scraping URL: {}", e.getMessage(), e);
+            return List.of(createErrorEvent("Failed: " + e.getMessage()));
+        }
+    }
+
+    // progress is told each stage as it starts, for scrape jobs that report status while running.
+    // With onEvent set the completion is streamed and each event is handed over as soon as it parses,
+    // before ids are assigned and before it is saved; the returned list is still the saved result.
+    // Fetch and save failures are thrown so a job can record them.
+    public List<Event> scrapeFromUrl(String url, Consumer<ScrapeJob.Status> progress, Consumer<Event> onEvent) throws Exception {
         log.info("Starting to scrape URL: {}", url);
-        
-        WebDriverManager.chromedriver().setup();
-        ChromeOptions options = new ChromeOptions();
-        options.addArguments("--headless=new");
-        options.addArguments("--disable-gpu");
-        options.addArguments("--no-sandbox");
-        options.addArguments("--disable-dev-shm-usage");
-        options.addArguments("--window-size=1920,1080");
 
-        WebDriver driver = new ChromeDriver(options);
+        progress.accept(ScrapeJob.Status.FETCHING);
+        PageFetchService.FetchedPage page = pageFetchService.fetch(url);
+        log.info("Fetched {} via {} tier", url, page.getTier());
+        String bodyText = textReducer.reduce(page.getText());
 
-        try {
-            driver.get(url);
+        progress.accept(ScrapeJob.Status.EXTRACTING);
+        List<Event> extracted = assignStableIds(extractEvents(bodyText, url, onEvent));
+        // Error placeholders (no source url) go back to the caller but are not persisted
+        List<Event> extractedEvents = extracted.stream().filter(event -> event.getUrl() != null).toList();
+        List<Event> errors = extracted.stream().filter(event -> event.getUrl() == null).toList();
+        progress.accept(ScrapeJob.Status.SAVING);
+        BatchWriteReport report = eventRepository.saveAllWithReport(extractedEvents);
+        List<Event> savedEvents = new ArrayList<>(report.getSaved());
+        savedEvents.addAll(errors);
+        if (report.hasFailures()) {
+            report.getFailed().forEach(failure ->
+                log.warn("Failed to save scraped event '{}': {}", failure.getTitle(), failure.getReason()));
+            savedEvents.add(createErrorEvent(String.format("Failed to save %d of %d extracted events",
+                report.getFailed().size(), extractedEvents.size())));
+        }
+        log.info("Successfully extracted and saved {} events from URL", report.getSaved().size());
+        return savedEvents;
+    }
 
-            new WebDriverWait(driver, Duration.ofSeconds(15))
-                    .until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
-            
-            log.info("Waiting for JavaScript to load dynamic content...");
-            Thread.sleep(8000);
-            
-            try {
-                new WebDriverWait(driver, Duration.ofSeconds(5))
-                    .until(d -> d.findElement(By.tagName("body")).getText().length() > 100);
-            } catch (Exception e) {
-                log.warn("Content didn't load much, continuing anyway...");
+    private List<Event> extractEvents(String bodyText, String sourceUrl, Consumer<Event> onEvent) {
+        String contentHash = contentHash(bodyText);
+        List<Event> cached = extractionCache.getIfPresent(contentHash);
+        if (cached != null) {
+            log.info("Page content unchanged, reusing {} extracted events", cached.size());
+            List<Event> reused = cached.stream().map(event -> forSource(event, sourceUrl)).toList();
+            if (onEvent != null) {
+                reused.forEach(onEvent);
             }
+            return reused;
+        }
 
-            String bodyText = driver.findElement(By.tagName("body")).getText();
-            log.info("Extracted body text length: {} characters", bodyText.length());
-            driver.quit();
+        List<Event> extracted = extractEventsWithBedrock(bodyText, sourceUrl, onEvent);
+        // Error placeholders have no source url; don't remember failed extractions
+        if (extracted.stream().allMatch(event -> event.getUrl() != null)) {
+            extractionCache.put(contentHash, extracted.stream().map(Event::copy).toList());
+        }
+        return extracted;
+    }
 
-            List<Event> extractedEvents = extractEventsWithBedrock(bodyText, url);
-            List<Event> savedEvents = eventRepository.saveAll(extractedEvents);
-            log.info("Successfully extracted and saved {} events from URL", savedEvents.size());
-            return savedEvents;
+    private static Event forSource(Event cached, String sourceUrl) {
+        Event event = cached.copy();
+        event.setId(null);
+        event.setCreatedAt(null);
+        event.setUpdatedAt(null);
+        event.setUrl(sourceUrl);
+        return event;
+    }
 
-        } catch (Exception e) {
-            log.error("Error scraping URL: {}", e.getMessage(), e);
-            Event errorEvent = createErrorEvent("Failed: " + e.getMessage());
-            eventRepository.save(errorEvent);
-            return List.of(errorEvent);
-        } finally {
-            try {
-                driver.quit();
-            } catch (Exception ignored) {}
+    private static String contentHash(String bodyText) {
+        String normalized = bodyText.replaceAll("\\s+", " ").trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
     }
 
-    private List<Event> extractEventsWithBedrock(String bodyText, String sourceUrl) {
+    // Ids derived from (url, title, date, startTime) make re-scrapes upsert the same rows instead of duplicating
+    private List<Event> assignStableIds(List<Event> events) {
+        Map<String, Event> byId = new LinkedHashMap<>();
+        for (Event event : events) {
+            if (event.getUrl() == null) {
+                byId.put(UUID.randomUUID().toString(), event);
+                continue;
+            }
+            String identity = String.join("|", event.getUrl(), String.valueOf(event.getTitle()),
+                String.valueOf(event.getDate()), String.valueOf(event.getStartTime()));
+            event.setId(UUID.nameUUIDFromBytes(identity.getBytes(StandardCharsets.UTF_8)).toString());
+            // A batch write rejects duplicate keys, so the same event listed twice is saved once
+            byId.put(event.getId(), event);
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    // Long pages are split into overlapping chunks extracted concurrently; overlap duplicates
+    // collapse later when stable ids are assigned. Single-chunk pages go through the executor too,
+    // so it really bounds every extraction call.
+    private List<Event> extractEventsWithBedrock(String bodyText, String sourceUrl, Consumer<Event> onEvent) {
+        List<String> chunks = TextChunker.split(bodyText, chunkChars, chunkOverlapChars);
+        if (chunks.size() > maxChunks) {
+            log.warn("Page split into {} chunks, extracting only the first {}", chunks.size(), maxChunks);
+            chunks = chunks.subList(0, maxChunks);
+        }
+
+        if (chunks.size() > 1) {
+            log.info("Extracting {} characters in {} chunks", bodyText.length(), chunks.size());
+        }
+        List<CompletableFuture<List<Event>>> futures = chunks.stream()
+            .map(chunk -> CompletableFuture.supplyAsync(() -> extractChunk(chunk, sourceUrl, onEvent), extractionExecutor))
+            .toList();
+
+        List<Event> merged = new ArrayList<>();
+        futures.forEach(future -> merged.addAll(future.join()));
+        return merged;
+    }
+
+    private List<Event> extractChunk(String bodyText, String sourceUrl, Consumer<Event> onEvent) {
         try {
-            String prompt = buildExtractionPrompt(bodyText);
+            boolean structured = onEvent == null && "structured".equals(extractionMode);
             
             ChatRequest request = new ChatRequest();
-            request.setMessage(prompt);
+            request.setSystem(structured ? STRUCTURED_INSTRUCTIONS : TEXT_INSTRUCTIONS);
+            request.setCacheSystem(true);
+            request.setMessage("txt:\n" + bodyText);
             request.setMaxTokens(4000);
             request.setTemperature(0.3);
 
-            ChatResponse response = bedrockService.chat(request);
+            if (onEvent != null) {
+                return extractChunkStreaming(request, sourceUrl, onEvent);
+            }
+            if (structured) {
+                EventJsonBinder.ToolEvents result = llmService.invokeTool(request, EventJsonBinder.TOOL_SPEC,
+                    EventJsonBinder.TOOL_NAME, body -> EventJsonBinder.readToolEvents(body, sourceUrl));
+                llmService.recordUsage(result.usage());
+                result.events().forEach(event -> log.info("Extracted event: {}", event.getTitle()));
+                return result.events();
+            }
+
+            ChatResponse response = llmService.chat(request);
             
             if (!response.isSuccess()) {
                 log.error("Bedrock returned error: {}", response.getError());
@@ -139,34 +306,30 @@ public class EventService {
         }
     }
 
-    private String buildExtractionPrompt(String bodyText) {
-        String truncatedText = bodyText;
-        if (bodyText.length() > 20000) {
-            truncatedText = bodyText.substring(0, 20000) + "\n[... text truncated ...]";
-            log.warn("Body text truncated from {} to 20000 characters", bodyText.length());
-        }
-
-        return "You are an AI assistant. Extract all events from this txt page. " +
-               "Each event should have: title, date, startTime, endTime, address, note. " +
-               "If the information is not directly written, leave the slot as empty. " +
-               "For example, if it is written as online, TBD, soon, absolutely do not put it. " +
-               "For time, put it as military time, but only in minutes, meaning if it is 01:00, it would be 60. " +
-               "If it is 13:30, it would be 810 (13*60 + 30). " +
-               "For location, if it is too specific, try adding city and country name if relevant information exists. " +
-               "In the note, summarize the event in two or 3 sentences. " +
-               "For date, use numbers only and if its september, put it as 9, not 09. " +
-               "Output ONLY the JSON array, no other text. Output as JSON array like:\n" +
-               "[\n" +
-               "  {\n" +
-               "    \"title\": \"...\",\n" +
-               "    \"date\": [month, day, year],\n" +
-               "    \"startTime\": 60,\n" +
-               "    \"endTime\": 120,\n" +
-               "    \"address\": \"...\",\n" +
-               "    \"note\": \"...\"\n" +
-               "  }\n" +
-               "]\n\n" +
-               "txt:\n" + truncatedText;
+    private List<Event> extractChunkStreaming(ChatRequest request, String sourceUrl, Consumer<Event> onEvent) {
+        List<Event> events = new ArrayList<>();
+        IncrementalJsonArrayParser parser = new IncrementalJsonArrayParser(json -> {
+            try {
+                Event event = toEvent(new JSONObject(json), sourceUrl);
+                events.add(event);
+                onEvent.accept(event);
+                log.info("Extracted event: {}", event.getTitle());
+            } catch (Exception e) {
+                log.warn("Skipping unparseable streamed event: {}", e.getMessage());
+            }
+        });
+
+        ChatResponse response = llmService.chatStream(request, parser::feed).join();
+        if (!response.isSuccess()) {
+            log.error("Bedrock returned error: {}", response.getError());
+            events.add(createErrorEvent("AI extraction failed: " + response.getError()));
+            return events;
+        }
+        if (parser.emitted() == 0) {
+            // Nothing recognisable streamed; let the regular parser report what came back
+            return parseEventsFromJson(response.getResponse(), sourceUrl);
+        }
+        return events;
     }
 
     private List<Event> parseEventsFromJson(String jsonResponse, String sourceUrl) {
@@ -190,41 +353,7 @@ public class EventService {
             JSONArray jsonArray = new JSONArray(cleanJson);
             
             for (int i = 0; i < jsonArray.length(); i++) {
-                JSONObject jsonEvent = jsonArray.getJSONObject(i);
-                Event event = new Event();
-                
-                if (jsonEvent.has("title") && !jsonEvent.isNull("title")) {
-                    event.setTitle(jsonEvent.getString("title") + "*");
-                }
-                
-                if (jsonEvent.has("date") && !jsonEvent.isNull("date")) {
-                    JSONArray dateArray = jsonEvent.getJSONArray("date");
-                    List<Integer> dateList = new ArrayList<>();
-                    for (int j = 0; j < dateArray.length(); j++) {
-                        dateList.add(dateArray.getInt(j));
-                    }
-                    event.setDate(dateList);
-                }
-                
-                if (jsonEvent.has("startTime") && !jsonEvent.isNull("startTime")) {
-                    event.setStartTime(jsonEvent.optInt("startTime", 0));
-                }
-                
-                if (jsonEvent.has("endTime") && !jsonEvent.isNull("endTime")) {
-                    event.setEndTime(jsonEvent.optInt("endTime", 0));
-                }
-                
-                if (jsonEvent.has("address") && !jsonEvent.isNull("address")) {
-                    event.setAddress(jsonEvent.getString("address"));
-                }
-                
-                if (jsonEvent.has("note") && !jsonEvent.isNull("note")) {
-                    event.setNote(jsonEvent.getString("note"));
-                }
-                
-                event.setUrl(sourceUrl);
-                event.setTimeSensitive(event.getStartTime() != null && event.getStartTime() > 0);
-                
+                Event event = toEvent(jsonArray.getJSONObject(i), sourceUrl);
                 extractedEvents.add(event);
                 log.info("Extracted event: {}", event.getTitle());
             }
@@ -238,10 +367,70 @@ public class EventService {
         return extractedEvents;
     }
 
+    private Event toEvent(JSONObject jsonEvent, String sourceUrl) {
+        Event event = new Event();
+        
+        if (jsonEvent.has("title") && !jsonEvent.isNull("title")) {
+            event.setTitle(jsonEvent.getString("title") + "*");
+        }
+        
+        if (jsonEvent.has("date") && !jsonEvent.isNull("date")) {
+            JSONArray dateArray = jsonEvent.getJSONArray("date");
+            List<Integer> dateList = new ArrayList<>();
+            for (int j = 0; j < dateArray.length(); j++) {
+                dateList.add(dateArray.getInt(j));
+            }
+            event.setDate(dateList);
+        }
+        
+        if (jsonEvent.has("startTime") && !jsonEvent.isNull("startTime")) {
+            event.setStartTime(jsonEvent.optInt("startTime", 0));
+        }
+        
+        if (jsonEvent.has("endTime") && !jsonEvent.isNull("endTime")) {
+            event.setEndTime(jsonEvent.optInt("endTime", 0));
+        }
+        
+        if (jsonEvent.has("address") && !jsonEvent.isNull("address")) {
+            event.setAddress(jsonEvent.getString("address"));
+        }
+        
+        if (jsonEvent.has("note") && !jsonEvent.isNull("note")) {
+            event.setNote(jsonEvent.getString("note"));
+        }
+        
+        event.setUrl(sourceUrl);
+        event.setTimeSensitive(event.getStartTime() != null && event.getStartTime() > 0);
+
+        return event;
+    }
+
     public List<Event> getAllEvents() {
         return eventRepository.findAll();
     }
 
+    public List<Event> getEventsInRange(LocalDate from, LocalDate to) {
+        return eventRepository.findByDateRange(from, to);
+    }
+
+    // The *Async variants release the calling thread when events.repository.mode=async;
+    // in blocking mode they run inline and return an already completed future
+    public CompletableFuture<List<Event>> getAllEventsAsync() {
+        AsyncEventRepository async = asyncEventRepository.getIfAvailable();
+        if (async == null) {
+            return CompletableFuture.completedFuture(getAllEvents());
+        }
+        return async.findAll();
+    }
+
+    public CompletableFuture<List<Event>> getEventsInRangeAsync(LocalDate from, LocalDate to) {
+        AsyncEventRepository async = asyncEventRepository.getIfAvailable();
+        if (async == null) {
+            return CompletableFuture.completedFuture(getEventsInRange(from, to));
+        }
+        return async.findByDateRange(from, to);
+    }
+
     public void clearEvents() {
         eventRepository.deleteAll();
         log.info("Cleared all events from DynamoDB");
@@ -250,4 +439,12 @@ public class EventService {
     public long getEventCount() {
         return eventRepository.count();
     }
+
+    public CompletableFuture<Long> getEventCountAsync() {
+        AsyncEventRepository async = asyncEventRepository.getIfAvailable();
+        if (async == null) {
+            return CompletableFuture.completedFuture(getEventCount());
+        }
+        return async.count();
+    }
 }
\ No newline at end of file
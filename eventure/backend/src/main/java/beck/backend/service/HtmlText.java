@@ -0,0 +1,55 @@
+package beck.backend.service;
+
+import org.jsoup.nodes.Element;
+import org.jsoup.nodes.Node;
+import org.jsoup.nodes.TextNode;
+import org.jsoup.select.NodeTraversor;
+import org.jsoup.select.NodeVisitor;
+
+/**
+ * Turns a jsoup element into plain text that keeps block boundaries as line breaks,
+ * roughly matching what a browser's innerText gives for the same markup.
+ */
+final class HtmlText {
+
+    private HtmlText() {
+    }
+
+    static String blockText(Element root) {
+        root.select("script, style, noscript, template, svg").remove();
+        StringBuilder text = new StringBuilder();
+        NodeTraversor.traverse(new NodeVisitor() {
+            @Override
+            public void head(Node node, int depth) {
+                if (node instanceof TextNode textNode) {
+                    text.append(textNode.text());
+                } else if (node instanceof Element element
+                        && (element.isBlock() || "br".equals(element.normalName()))) {
+                    newLine(text);
+                }
+            }
+
+            @Override
+            public void tail(Node node, int depth) {
+                if (node instanceof Element element && element.isBlock()) {
+                    newLine(text);
+                }
+            }
+        }, root);
+
+        StringBuilder result = new StringBuilder(text.length());
+        for (String line : text.toString().split("\n")) {
+            String trimmed = line.trim();
+            if (!trimmed.isEmpty()) {
+                result.append(trimmed).append('\n');
+            }
+        }
+        return result.toString().trim();
+    }
+
+    private static void newLine(StringBuilder text) {
+        if (text.length() > 0 && text.charAt(text.length() - 1) != '\n') {
+            text.append('\n');
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package beck.backend.service;
+
+import java.util.function.Consumer;
+
+/**
+ * Splits a JSON array that arrives in arbitrary text fragments into its top-level objects,
+ * handing each object's text to the consumer as soon as its closing brace is seen. Anything
+ * before the first '[' (such as a markdown fence) is skipped, and input after the array
+ * closes is ignored. Not thread-safe; feed it from one stream.
+ */
+class IncrementalJsonArrayParser {
+
+    private final Consumer<String> onObject;
+    private final StringBuilder current = new StringBuilder();
+    private int depth;
+    private boolean started;
+    private boolean finished;
+    private boolean inString;
+    private boolean escaped;
+    private int emitted;
+
+    IncrementalJsonArrayParser(Consumer<String> onObject) {
+        this.onObject = onObject;
+    }
+
+    void feed(String fragment) {
+        for (int i = 0; i < fragment.length() && !finished; i++) {
+            accept(fragment.charAt(i));
+        }
+    }
+
+    int emitted() {
+        return emitted;
+    }
+
+    private void accept(char c) {
+        if (!started) {
+            if (c == '[') {
+                started = true;
+                depth = 1;
+            }
+            return;
+        }
+
+        boolean capturing = depth >= 2;
+        if (inString) {
+            if (escaped) {
+                escaped = false;
+            } else if (c == '\\') {
+                escaped = true;
+            } else if (c == '"') {
+                inString = false;
+            }
+        } else if (c == '"') {
+            inString = true;
+        } else if (c == '{' || c == '[') {
+            depth++;
+            capturing = depth >= 2;
+        } else if (c == '}' || c == ']') {
+            depth--;
+            if (depth == 0) {
+                finished = true;
+                return;
+            }
+            if (depth == 1 && c == '}') {
+                current.append(c);
+                onObject.accept(current.toString());
+                current.setLength(0);
+                emitted++;
+                return;
+            }
+        }
+
+        if (capturing) {
+            current.append(c);
+        }
+    }
+}
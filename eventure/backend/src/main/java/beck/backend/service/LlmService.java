@@ -0,0 +1,31 @@
+package beck.backend.service;
+
+import beck.backend.model.ChatRequest;
+import beck.backend.model.ChatResponse;
+import beck.backend.model.TokenUsage;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * The model calls the app makes. {@link BedrockService} is the real one; {@link LocalLlmService}
+ * stands in under the "local-llm" profile so the pipeline can be exercised without Bedrock.
+ */
+public interface LlmService {
+
+    ChatResponse chat(ChatRequest request);
+
+    /**
+     * Forces the model to answer by calling the given tool. reader gets the raw response body in the
+     * Bedrock InvokeModel format.
+     */
+    <T> T invokeTool(ChatRequest request, String toolSpec, String toolName, Function<InputStream, T> reader);
+
+    /** Passes each text delta to onText as it arrives; completes with the full text or an error response. */
+    CompletableFuture<ChatResponse> chatStream(ChatRequest request, Consumer<String> onText);
+
+    /** Records usage that the caller read from a response itself. */
+    TokenUsage recordUsage(TokenUsage usage);
+}
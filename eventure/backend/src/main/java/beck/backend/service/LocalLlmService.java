@@ -0,0 +1,247 @@
+package beck.backend.service;
+
+import beck.backend.model.ChatRequest;
+import beck.backend.model.ChatResponse;
+import beck.backend.model.TokenUsage;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import jakarta.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Offline stand-in for Bedrock, active under the "local-llm" profile, for load testing the scrape
+ * pipeline without spending quota. Replies are derived from a hash of the prompt, so the same page
+ * always yields the same events; their dates count from a fixed base date rather than today, so a
+ * replay next week still matches. Latency follows a log-normal distribution fitted to the configured
+ * median and p99, and a share of calls fail with throttling or server errors. Calls still go through
+ * BedrockGateway, so its limiter, retries and circuit breaker are exercised too, and the estimated
+ * usage is counted on the same bedrock.tokens meters.
+ */
+@Slf4j
+@Service
+@Profile("local-llm")
+public class LocalLlmService implements LlmService {
+
+    private static final String[] TITLES = {
+        "Jazz Night", "Farmers Market", "Startup Pitch Evening", "Community Cleanup", "Board Game Meetup",
+        "Open Mic", "Photography Walk", "Career Fair", "Yoga in the Park", "Book Club"
+    };
+    private static final String[] ADDRESSES = {
+        "123 Main St, Springfield, USA", "Central Library, 5 Elm Ave, Springfield, USA",
+        "Riverside Park, Springfield, USA", "Student Union Hall, 400 College Rd, Springfield, USA"
+    };
+
+    private final BedrockGateway bedrockGateway;
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "local-llm");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Latency and failures draw from one seeded sequence; content comes from the prompt hash
+    private final Random chance;
+    private final long seed;
+    private final LocalDate baseDate;
+
+    @Value("${llm.local.latency-median-ms:1500}")
+    private long latencyMedianMs;
+
+    @Value("${llm.local.latency-p99-ms:6000}")
+    private long latencyP99Ms;
+
+    @Value("${llm.local.error-rate:0.0}")
+    private double errorRate;
+
+    @Value("${llm.local.throttle-rate:0.0}")
+    private double throttleRate;
+
+    @Value("${llm.local.tokens-per-second:80}")
+    private int tokensPerSecond;
+
+    public LocalLlmService(BedrockGateway bedrockGateway, MeterRegistry meterRegistry,
+                           @Value("${llm.local.seed:42}") long seed,
+                           @Value("${llm.local.base-date:2025-01-06}") String baseDate) {
+        this.bedrockGateway = bedrockGateway;
+        this.meterRegistry = meterRegistry;
+        this.seed = seed;
+        this.baseDate = LocalDate.parse(baseDate);
+        this.chance = new Random(seed);
+        log.warn("Using the local LLM stub; no Bedrock calls will be made");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    @Override
+    public ChatResponse chat(ChatRequest request) {
+        try {
+            String text = bedrockGateway.execute(() -> {
+                simulateCall();
+                return replyText(request);
+            });
+            ChatResponse response = new ChatResponse(text, request.getModelId());
+            response.setUsage(recordUsage(usage(request, text)));
+            return response;
+        } catch (Exception e) {
+            log.warn("Local LLM call failed: {}", e.getMessage());
+            return ChatResponse.error("Failed to get response from AI: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public <T> T invokeTool(ChatRequest request, String toolSpec, String toolName, Function<InputStream, T> reader) {
+        String body = bedrockGateway.execute(() -> {
+            simulateCall();
+            JSONObject toolUse = new JSONObject()
+                    .put("type", "tool_use")
+                    .put("id", "toolu_local")
+                    .put("name", toolName)
+                    .put("input", new JSONObject().put("events", events(request)));
+            TokenUsage usage = usage(request, toolUse.toString());
+            return new JSONObject()
+                    .put("content", new JSONArray().put(toolUse))
+                    .put("stop_reason", "tool_use")
+                    .put("usage", new JSONObject()
+                            .put("input_tokens", usage.getInputTokens())
+                            .put("output_tokens", usage.getOutputTokens()))
+                    .toString();
+        });
+        return reader.apply(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public CompletableFuture<ChatResponse> chatStream(ChatRequest request, Consumer<String> onText) {
+        try {
+            return bedrockGateway.executeAsync(() -> stream(request, onText))
+                    .exceptionally(e -> {
+                        log.warn("Local LLM stream failed: {}", e.getMessage());
+                        return ChatResponse.error("Failed to get response from AI: " + e.getMessage());
+                    });
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(ChatResponse.error(e.getMessage()));
+        }
+    }
+
+    /** Counts the estimated usage like BedrockService does; a missing usage is counted as zero. */
+    @Override
+    public TokenUsage recordUsage(TokenUsage usage) {
+        TokenUsage recorded = usage == null ? new TokenUsage() : usage;
+        BedrockService.countTokens(meterRegistry, recorded);
+        log.debug("Local LLM usage: {} input, {} output tokens (estimated)",
+                recorded.getInputTokens(), recorded.getOutputTokens());
+        return recorded;
+    }
+
+    private CompletableFuture<ChatResponse> stream(ChatRequest request, Consumer<String> onText) {
+        CompletableFuture<ChatResponse> result = new CompletableFuture<>();
+        RuntimeException failure = drawFailure();
+        long firstTokenMs = sampleLatencyMs() / 3;
+        if (failure != null) {
+            scheduler.schedule(() -> result.completeExceptionally(failure), firstTokenMs, TimeUnit.MILLISECONDS);
+            return result;
+        }
+
+        String text = replyText(request);
+        long tokenMs = Math.max(1, 1000 / tokensPerSecond);
+        // Roughly four characters per token, delivered at the configured rate after the first-token delay
+        for (int offset = 0, i = 0; offset < text.length(); offset += 4, i++) {
+            String part = text.substring(offset, Math.min(text.length(), offset + 4));
+            scheduler.schedule(() -> onText.accept(part), firstTokenMs + i * tokenMs, TimeUnit.MILLISECONDS);
+        }
+        long doneMs = firstTokenMs + (text.length() / 4 + 1) * tokenMs;
+        scheduler.schedule(() -> {
+            ChatResponse response = new ChatResponse(text, request.getModelId());
+            response.setUsage(recordUsage(usage(request, text)));
+            result.complete(response);
+        }, doneMs, TimeUnit.MILLISECONDS);
+        return result;
+    }
+
+    private void simulateCall() {
+        long latency = sampleLatencyMs();
+        try {
+            Thread.sleep(latency);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during simulated call", e);
+        }
+        RuntimeException failure = drawFailure();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private RuntimeException drawFailure() {
+        double roll;
+        synchronized (chance) {
+            roll = chance.nextDouble();
+        }
+        if (roll < throttleRate) {
+            return SdkServiceException.builder().statusCode(429).message("Simulated throttling").build();
+        }
+        if (roll < throttleRate + errorRate) {
+            return SdkServiceException.builder().statusCode(500).message("Simulated server error").build();
+        }
+        return null;
+    }
+
+    // Log-normal with the configured median, and sigma chosen so the 99th percentile lands on latency-p99-ms
+    private long sampleLatencyMs() {
+        double gaussian;
+        synchronized (chance) {
+            gaussian = chance.nextGaussian();
+        }
+        double mu = Math.log(Math.max(1, latencyMedianMs));
+        double sigma = Math.log((double) Math.max(latencyP99Ms, latencyMedianMs + 1) / Math.max(1, latencyMedianMs)) / 2.326;
+        return Math.round(Math.exp(mu + sigma * gaussian));
+    }
+
+    private String replyText(ChatRequest request) {
+        if (request.getSystem() == null) {
+            return "Local stub reply to: " + request.getMessage();
+        }
+        return events(request).toString(2);
+    }
+
+    private JSONArray events(ChatRequest request) {
+        Random random = new Random(seed ^ String.valueOf(request.getMessage()).hashCode());
+        JSONArray events = new JSONArray();
+        int count = 1 + random.nextInt(8);
+        for (int i = 0; i < count; i++) {
+            LocalDate date = baseDate.plusDays(random.nextInt(60));
+            int start = (8 + random.nextInt(12)) * 60 + (random.nextBoolean() ? 30 : 0);
+            String title = TITLES[random.nextInt(TITLES.length)];
+            events.put(new JSONObject()
+                    .put("title", title)
+                    .put("date", new JSONArray().put(date.getMonthValue()).put(date.getDayOfMonth()).put(date.getYear()))
+                    .put("startTime", start)
+                    .put("endTime", Math.min(start + 60 + random.nextInt(4) * 30, 24 * 60 - 1))
+                    .put("address", ADDRESSES[random.nextInt(ADDRESSES.length)])
+                    .put("note", title + " hosted locally. Open to everyone; bring a friend."));
+        }
+        return events;
+    }
+
+    private static TokenUsage usage(ChatRequest request, String output) {
+        int input = (String.valueOf(request.getSystem()).length() + String.valueOf(request.getMessage()).length()) / 4;
+        return new TokenUsage(input, output.length() / 4, 0, 0);
+    }
+}
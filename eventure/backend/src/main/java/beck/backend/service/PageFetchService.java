@@ -0,0 +1,176 @@
+package beck.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * Fetches page text for scraping in tiers: a plain HTTP GET parsed with jsoup first, and the
+ * pooled headless browser only when the static HTML is too thin or looks like a JavaScript shell.
+ * The tier that worked is remembered per host so later scrapes go straight to it.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PageFetchService {
+
+    private static final Pattern JS_REQUIRED = Pattern.compile(
+            "(enable|requires?|turn on)\\s+javascript|javascript\\s+(is\\s+)?(required|disabled)",
+            Pattern.CASE_INSENSITIVE);
+    private static final String USER_AGENT =
+            "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120.0 Safari/537.36";
+
+    public enum Tier { STATIC, BROWSER }
+
+    private final BrowserPool browserPool;
+    private final PageReadinessWaiter pageReadinessWaiter;
+
+    @Value("${scraper.static.enabled:true}")
+    private boolean staticEnabled;
+
+    @Value("${scraper.static.min-text-chars:500}")
+    private int minStaticTextChars;
+
+    @Value("${scraper.static.timeout-ms:5000}")
+    private long staticTimeoutMs;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final Cache<String, Tier> tierByHost = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(Duration.ofDays(1))
+            .build();
+
+    public FetchedPage fetch(String url) throws Exception {
+        String host = host(url);
+        Tier known = tierByHost.getIfPresent(host);
+
+        if (staticEnabled && known != Tier.BROWSER) {
+            Optional<FetchedPage> page = fetchStatic(url);
+            if (page.isPresent()) {
+                tierByHost.put(host, Tier.STATIC);
+                return page.get();
+            }
+        }
+
+        FetchedPage page = fetchWithBrowser(url);
+        tierByHost.put(host, Tier.BROWSER);
+        return page;
+    }
+
+    private Optional<FetchedPage> fetchStatic(String url) {
+        long start = System.currentTimeMillis();
+        try {
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .timeout(Duration.ofMillis(staticTimeoutMs))
+                    .header("User-Agent", USER_AGENT)
+                    .header("Accept", "text/html,application/xhtml+xml")
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+
+            String contentType = response.headers().firstValue("Content-Type").orElse("");
+            if (response.statusCode() != 200 || !contentType.contains("html")) {
+                log.info("Static fetch of {} not usable (status {}, type '{}'), escalating to browser",
+                        url, response.statusCode(), contentType);
+                return Optional.empty();
+            }
+
+            Document document = Jsoup.parse(response.body(), url);
+            if (looksLikeScriptShell(document)) {
+                log.info("Static HTML of {} looks like a JavaScript shell, escalating to browser", url);
+                return Optional.empty();
+            }
+
+            String text = HtmlText.blockText(document.body());
+            if (text.length() < minStaticTextChars) {
+                log.info("Static text of {} too short ({} chars), escalating to browser", url, text.length());
+                return Optional.empty();
+            }
+
+            log.info("Fetched {} statically: {} characters in {} ms", url, text.length(), System.currentTimeMillis() - start);
+            return Optional.of(new FetchedPage(url, text, Tier.STATIC));
+        } catch (Exception e) {
+            log.warn("Static fetch of {} failed, escalating to browser: {}", url, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private boolean looksLikeScriptShell(Document document) {
+        for (Element noscript : document.select("noscript")) {
+            if (JS_REQUIRED.matcher(noscript.text()).find()) {
+                return true;
+            }
+        }
+        // SPA mount points that are still empty in the served HTML
+        for (Element root : document.select("#root, #app, #__next, #__nuxt, [data-reactroot], app-root")) {
+            if (root.text().isBlank()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FetchedPage fetchWithBrowser(String url) throws Exception {
+        long start = System.currentTimeMillis();
+        try (BrowserPool.Lease lease = browserPool.acquire()) {
+            WebDriver driver = lease.driver();
+            try {
+                driver.get(url);
+
+                new WebDriverWait(driver, Duration.ofSeconds(15))
+                        .until(ExpectedConditions.presenceOfElementLocated(By.tagName("body")));
+
+                log.info("Waiting for JavaScript to load dynamic content...");
+                pageReadinessWaiter.awaitReady(driver, url);
+
+                String bodyText = driver.findElement(By.tagName("body")).getText();
+                log.info("Extracted body text length: {} characters in {} ms", bodyText.length(), System.currentTimeMillis() - start);
+                return new FetchedPage(url, bodyText, Tier.BROWSER);
+            } catch (WebDriverException e) {
+                lease.markBroken();
+                throw e;
+            }
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class FetchedPage {
+        private final String url;
+        private final String text;
+        private final Tier tier;
+    }
+}
@@ -0,0 +1,151 @@
+package beck.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Decides when a page has finished rendering instead of sleeping for a fixed time. A page is
+ * ready once document.readyState is complete, no fetch/XHR is pending, the DOM has stopped
+ * mutating and the body text length has been stable for a quiet window, bounded by max-wait-ms.
+ * Settle times are learned per host so pages known to render slowly are not cut off early.
+ */
+@Slf4j
+@Component
+public class PageReadinessWaiter {
+
+    // Installed on every new document by BrowserPool; tracks in-flight requests and the last DOM mutation
+    public static final String INSTRUMENTATION_SCRIPT = """
+            (() => {
+              if (window.__eventure) return;
+              const state = window.__eventure = { pending: 0, lastMutation: Date.now() };
+              if (window.fetch) {
+                const originalFetch = window.fetch;
+                window.fetch = function () {
+                  state.pending++;
+                  return originalFetch.apply(this, arguments).finally(() => { state.pending--; });
+                };
+              }
+              const originalSend = XMLHttpRequest.prototype.send;
+              XMLHttpRequest.prototype.send = function () {
+                state.pending++;
+                this.addEventListener('loadend', () => { state.pending--; }, { once: true });
+                return originalSend.apply(this, arguments);
+              };
+              new MutationObserver(() => { state.lastMutation = Date.now(); })
+                .observe(document, { childList: true, subtree: true, characterData: true });
+            })();
+            """;
+
+    private static final String PROBE_SCRIPT = """
+            const state = window.__eventure;
+            return [
+              document.readyState,
+              state ? state.pending : -1,
+              state ? Date.now() - state.lastMutation : -1,
+              document.body ? document.body.textContent.length : 0
+            ];
+            """;
+
+    @Value("${scraper.readiness.max-wait-ms:10000}")
+    private long maxWaitMs;
+
+    @Value("${scraper.readiness.poll-ms:100}")
+    private long pollMs;
+
+    @Value("${scraper.readiness.quiet-ms:300}")
+    private long baseQuietMs;
+
+    private final Cache<String, WaitProfile> profiles = Caffeine.newBuilder()
+            .maximumSize(1000)
+            .build();
+
+    /** Blocks until the page looks rendered or the upper bound is hit; returns the time waited in ms. */
+    public long awaitReady(WebDriver driver, String url) throws InterruptedException {
+        String host = host(url);
+        WaitProfile profile = profiles.get(host, h -> new WaitProfile());
+        long quietMs = profile.quietMs(baseQuietMs);
+        long minWaitMs = profile.minWaitMs();
+
+        long start = System.currentTimeMillis();
+        long deadline = start + maxWaitMs;
+        long stableSince = start;
+        long lastLength = -1;
+        boolean ready = false;
+
+        while (System.currentTimeMillis() < deadline) {
+            long now = System.currentTimeMillis();
+            List<?> probe = probe(driver);
+            long length = probe != null ? ((Number) probe.get(3)).longValue() : 0;
+            if (length != lastLength) {
+                lastLength = length;
+                stableSince = now;
+            }
+
+            if (probe != null && now - start >= minWaitMs && length > 0 && now - stableSince >= quietMs) {
+                long pending = ((Number) probe.get(1)).longValue();
+                long sinceMutation = ((Number) probe.get(2)).longValue();
+                boolean loaded = "complete".equals(probe.get(0));
+                // pending/sinceMutation are -1 when the instrumentation could not be installed
+                if (loaded && pending <= 0 && (sinceMutation < 0 || sinceMutation >= quietMs)) {
+                    ready = true;
+                    break;
+                }
+            }
+            Thread.sleep(pollMs);
+        }
+
+        long waited = System.currentTimeMillis() - start;
+        profile.record(waited);
+        if (ready) {
+            log.info("Page {} ready after {} ms", host, waited);
+        } else {
+            log.warn("Page {} still changing after {} ms, continuing anyway", host, waited);
+        }
+        return waited;
+    }
+
+    private List<?> probe(WebDriver driver) {
+        try {
+            Object result = ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT);
+            return result instanceof List<?> list && list.size() == 4 ? list : null;
+        } catch (Exception e) {
+            log.debug("Readiness probe failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static String host(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host : url;
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+    }
+
+    // Exponentially weighted average of how long pages on one host took to settle
+    private static class WaitProfile {
+        private static final double ALPHA = 0.3;
+        private double averageMs = -1;
+
+        synchronized void record(long waitedMs) {
+            averageMs = averageMs < 0 ? waitedMs : ALPHA * waitedMs + (1 - ALPHA) * averageMs;
+        }
+
+        // Slow hosts get a longer quiet window so a lull between script phases isn't mistaken for done
+        synchronized long quietMs(long baseQuietMs) {
+            return averageMs < 0 ? baseQuietMs : Math.max(baseQuietMs, Math.min(1000, (long) (averageMs / 4)));
+        }
+
+        synchronized long minWaitMs() {
+            return averageMs < 0 ? 0 : (long) (averageMs / 2);
+        }
+    }
+}
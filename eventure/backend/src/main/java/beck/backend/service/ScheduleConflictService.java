@@ -0,0 +1,136 @@
+package beck.backend.service;
+
+import beck.backend.model.Event;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Finds every conflict in a schedule at once. Each day is swept in start-time order with a heap of the
+ * events still running, so overlaps come out in O(n log n + k); the event that finished last before
+ * another one starts is the leg whose gap has to cover the walk, and only those legs are looked up,
+ * grouped per origin. Legs where either event has no address can't be checked for travel and are
+ * skipped; overlapping events conflict with or without one.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleConflictService {
+
+    public static final String OVERLAP = "overlap";
+    public static final String TRAVEL = "travel";
+
+    private final TravelTimeService travelTimeService;
+
+    /** first and second are indexes into the day's list as given, first being the earlier event. */
+    public record Conflict(String day, int first, int second, String type, String reason,
+                           Integer travelMinutes, int gapMinutes) {
+    }
+
+    private record Slot(int index, Event event) {
+        int start() {
+            return event.getStartTime();
+        }
+
+        int end() {
+            return event.getEndTime();
+        }
+    }
+
+    private record Leg(String day, Slot before, Slot after) {
+    }
+
+    public List<Conflict> findConflicts(Map<String, List<Event>> schedule) {
+        List<Conflict> conflicts = new ArrayList<>();
+        List<Leg> legs = new ArrayList<>();
+
+        schedule.forEach((day, events) -> {
+            if (events != null) {
+                sweepDay(day, events, conflicts, legs);
+            }
+        });
+
+        if (!legs.isEmpty()) {
+            checkTravel(legs, conflicts);
+        }
+
+        // Day order as given, then by when the conflict starts
+        List<String> days = new ArrayList<>(schedule.keySet());
+        conflicts.sort(Comparator
+            .comparingInt((Conflict c) -> days.indexOf(c.day()))
+            .thenComparingInt(c -> schedule.get(c.day()).get(c.second()).getStartTime())
+            .thenComparingInt(c -> schedule.get(c.day()).get(c.first()).getStartTime()));
+        log.info("Found {} conflicts ({} travel legs checked)", conflicts.size(), legs.size());
+        return conflicts;
+    }
+
+    private void sweepDay(String day, List<Event> events, List<Conflict> conflicts, List<Leg> legs) {
+        List<Slot> slots = new ArrayList<>();
+        for (int i = 0; i < events.size(); i++) {
+            Event event = events.get(i);
+            if (event != null && event.getStartTime() != null && event.getEndTime() != null) {
+                slots.add(new Slot(i, event));
+            }
+        }
+        slots.sort(Comparator.comparingInt(Slot::start).thenComparingInt(Slot::end));
+
+        PriorityQueue<Slot> running = new PriorityQueue<>(Comparator.comparingInt(Slot::end));
+        Slot lastEnded = null;
+        for (Slot slot : slots) {
+            while (!running.isEmpty() && running.peek().end() <= slot.start()) {
+                Slot ended = running.poll();
+                if (lastEnded == null || ended.end() >= lastEnded.end()) {
+                    lastEnded = ended;
+                }
+            }
+            for (Slot other : running) {
+                conflicts.add(new Conflict(day, other.index(), slot.index(), OVERLAP, "Time overlap detected",
+                    null, slot.start() - other.end()));
+            }
+            if (lastEnded != null && hasAddress(lastEnded.event()) && hasAddress(slot.event())) {
+                legs.add(new Leg(day, lastEnded, slot));
+            }
+            running.add(slot);
+        }
+    }
+
+    private void checkTravel(List<Leg> legs, List<Conflict> conflicts) {
+        // Only the legs themselves, not every origin x destination pair of the week
+        Map<String, Set<String>> destinationsByOrigin = new LinkedHashMap<>();
+        for (Leg leg : legs) {
+            destinationsByOrigin
+                .computeIfAbsent(leg.before().event().getAddress(), origin -> new LinkedHashSet<>())
+                .add(leg.after().event().getAddress());
+        }
+
+        Map<String, Map<String, Integer>> matrix = travelTimeService.getTravelTimes(destinationsByOrigin);
+
+        for (Leg leg : legs) {
+            Integer travelMinutes = matrix
+                .getOrDefault(leg.before().event().getAddress(), Map.of())
+                .get(leg.after().event().getAddress());
+            int gapMinutes = leg.after().start() - leg.before().end();
+            if (travelMinutes == null) {
+                conflicts.add(new Conflict(leg.day(), leg.before().index(), leg.after().index(), TRAVEL,
+                    "Could not calculate travel time, assuming conflict", null, gapMinutes));
+            } else if (gapMinutes < travelMinutes) {
+                conflicts.add(new Conflict(leg.day(), leg.before().index(), leg.after().index(), TRAVEL,
+                    String.format("Need %d min travel time, only %d min available", travelMinutes, gapMinutes),
+                    travelMinutes, gapMinutes));
+            }
+        }
+    }
+
+    private static boolean hasAddress(Event event) {
+        return event.getAddress() != null && !event.getAddress().isEmpty();
+    }
+}
@@ -0,0 +1,207 @@
+package beck.backend.service;
+
+import beck.backend.model.Event;
+import beck.backend.model.ScrapeJob;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Runs scrapes in the background so the HTTP request returns immediately with a job id.
+ * A fixed pool of workers drains a bounded queue; when the queue is full new jobs are
+ * rejected rather than piling up. Finished jobs are kept for ttl-minutes for polling.
+ */
+@Slf4j
+@Service
+public class ScrapeJobService {
+
+    private final EventService eventService;
+    private final Cache<String, ScrapeJob> jobs;
+    private final Map<String, List<SseEmitter>> emitters = new ConcurrentHashMap<>();
+
+    @Value("${scraper.jobs.workers:2}")
+    private int workers;
+
+    @Value("${scraper.jobs.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${scraper.jobs.sse-timeout-ms:300000}")
+    private long sseTimeoutMs;
+
+    private ThreadPoolExecutor executor;
+
+    public ScrapeJobService(EventService eventService, @Value("${scraper.jobs.ttl-minutes:30}") long ttlMinutes) {
+        this.eventService = eventService;
+        this.jobs = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(10000)
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "scrape-worker-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /** Queues a scrape; empty when the queue is full and the caller should retry later. */
+    public Optional<ScrapeJob> submit(String url) {
+        ScrapeJob job = new ScrapeJob(url);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, null));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            log.warn("Scrape queue full ({} queued), rejecting {}", executor.getQueue().size(), url);
+            return Optional.empty();
+        }
+        log.info("Queued scrape job {} for {}", job.getId(), url);
+        return Optional.of(job);
+    }
+
+    public Optional<ScrapeJob> getJob(String id) {
+        return Optional.ofNullable(jobs.getIfPresent(id));
+    }
+
+    /** Streams a "progress" event on every status change and a final "done" event; empty if the job is unknown. */
+    public Optional<SseEmitter> stream(String id) {
+        ScrapeJob job = jobs.getIfPresent(id);
+        if (job == null) {
+            return Optional.empty();
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        List<SseEmitter> listeners = emitters.computeIfAbsent(id, key -> new CopyOnWriteArrayList<>());
+        listeners.add(emitter);
+        emitter.onCompletion(() -> listeners.remove(emitter));
+        emitter.onTimeout(() -> listeners.remove(emitter));
+        emitter.onError(e -> listeners.remove(emitter));
+
+        // The job may have moved on (or finished) before the listener was registered
+        send(emitter, job);
+        if (job.isFinished()) {
+            emitters.remove(id);
+        }
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Queues a scrape whose extraction is streamed: besides "progress" and "done", an "event" is sent for
+     * each event as soon as it is parsed, before it is saved. Empty when the queue is full.
+     */
+    public Optional<SseEmitter> streamScrape(String url) {
+        ScrapeJob job = new ScrapeJob(url);
+        jobs.put(job.getId(), job);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        List<SseEmitter> listeners = emitters.computeIfAbsent(job.getId(), key -> new CopyOnWriteArrayList<>());
+        listeners.add(emitter);
+        emitter.onCompletion(() -> listeners.remove(emitter));
+        emitter.onTimeout(() -> listeners.remove(emitter));
+        emitter.onError(e -> listeners.remove(emitter));
+        // Sends before the response is committed are buffered by the emitter
+        send(emitter, job);
+
+        try {
+            executor.execute(() -> run(job, event -> sendEvent(job, event)));
+        } catch (RejectedExecutionException e) {
+            jobs.invalidate(job.getId());
+            emitters.remove(job.getId());
+            log.warn("Scrape queue full ({} queued), rejecting streamed scrape of {}", executor.getQueue().size(), url);
+            return Optional.empty();
+        }
+        log.info("Queued streamed scrape job {} for {}", job.getId(), url);
+        return Optional.of(emitter);
+    }
+
+    private void run(ScrapeJob job, Consumer<Event> onEvent) {
+        try {
+            List<Event> events = eventService.scrapeFromUrl(job.getUrl(), status -> update(job, status), onEvent);
+            job.setEvents(List.copyOf(events));
+            // Nothing but error placeholders (no source url) means extraction failed outright
+            if (!events.isEmpty() && events.stream().allMatch(event -> event.getUrl() == null)) {
+                job.setError(events.stream().map(Event::getNote).collect(Collectors.joining("; ")));
+                update(job, ScrapeJob.Status.FAILED);
+                return;
+            }
+            update(job, ScrapeJob.Status.DONE);
+        } catch (Exception e) {
+            log.error("Scrape job {} failed: {}", job.getId(), e.getMessage(), e);
+            job.setError(e.getMessage());
+            update(job, ScrapeJob.Status.FAILED);
+        }
+    }
+
+    private void update(ScrapeJob job, ScrapeJob.Status status) {
+        job.setStatus(status);
+        job.setUpdatedAt(System.currentTimeMillis());
+        if (job.isFinished()) {
+            // Restart the retention window from completion
+            jobs.put(job.getId(), job);
+        }
+
+        List<SseEmitter> listeners = emitters.get(job.getId());
+        if (listeners != null) {
+            listeners.forEach(emitter -> send(emitter, job));
+        }
+        if (job.isFinished()) {
+            emitters.remove(job.getId());
+        }
+    }
+
+    // Called from the Bedrock stream threads; SseEmitter serialises concurrent sends itself
+    private void sendEvent(ScrapeJob job, Event event) {
+        List<SseEmitter> listeners = emitters.get(job.getId());
+        if (listeners == null) {
+            return;
+        }
+        listeners.forEach(emitter -> {
+            try {
+                emitter.send(SseEmitter.event().name("event").data(event));
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+    }
+
+    private void send(SseEmitter emitter, ScrapeJob job) {
+        try {
+            emitter.send(SseEmitter.event().name(job.isFinished() ? "done" : "progress").data(job));
+            if (job.isFinished()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -46,6 +46,8 @@ public class SmartSchedulerService {
             events.sort(Comparator.comparingInt(Event::getStartTime))
         );
 
+        prefetchTravelTimes(timeSensitive, flexible);
+
         for (Event flexEvent : flexible) {
             PlacementOption bestOption = findBestPlacement(schedule, flexEvent);
             if (bestOption != null) {
@@ -60,6 +62,25 @@ public class SmartSchedulerService {
 
         return schedule;
     }
+    // Scoring only looks up legs between a scheduled event and a flexible one (flexible events become
+    // scheduled once placed); travel times are cached symmetrically, so one matrix covers both directions
+    private void prefetchTravelTimes(List<Event> timeSensitive, List<Event> flexible) {
+        Set<String> flexibleAddresses = flexible.stream()
+            .map(Event::getAddress)
+            .filter(address -> address != null && !address.isEmpty())
+            .collect(Collectors.toCollection(LinkedHashSet::new));
+        if (flexibleAddresses.isEmpty()) {
+            return;
+        }
+        Set<String> allAddresses = new LinkedHashSet<>(flexibleAddresses);
+        timeSensitive.stream()
+            .map(Event::getAddress)
+            .filter(address -> address != null && !address.isEmpty())
+            .forEach(allAddresses::add);
+
+        travelTimeService.getTravelTimeMatrix(allAddresses, flexibleAddresses);
+    }
+
     private PlacementOption findBestPlacement(Map<String, List<Event>> schedule, Event flexEvent) {
         List<PlacementOption> options = new ArrayList<>();
 
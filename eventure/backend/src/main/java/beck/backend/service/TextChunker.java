@@ -0,0 +1,63 @@
+package beck.backend.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits page text into chunks of at most maxChars, cutting on paragraph boundaries where possible,
+ * then on line boundaries, and only mid-line for single lines longer than a chunk. Each chunk starts
+ * with up to overlapChars of whole lines from the end of the previous one so an event that straddles
+ * a cut is still seen complete by one of the two extractions. The overlap counts towards maxChars and
+ * is shortened when the next unit would not otherwise fit.
+ */
+final class TextChunker {
+
+    private TextChunker() {
+    }
+
+    static List<String> split(String text, int maxChars, int overlapChars) {
+        if (text.length() <= maxChars) {
+            return List.of(text);
+        }
+
+        // Every unit is followed by a newline in its chunk
+        int maxUnit = maxChars - 1;
+        List<String> units = new ArrayList<>();
+        for (String paragraph : text.split("\\n\\s*\\n")) {
+            if (paragraph.length() <= maxUnit) {
+                units.add(paragraph);
+                continue;
+            }
+            for (String line : paragraph.split("\\n")) {
+                for (int i = 0; i < line.length(); i += maxUnit) {
+                    units.add(line.substring(i, Math.min(i + maxUnit, line.length())));
+                }
+            }
+        }
+
+        List<String> chunks = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        for (String unit : units) {
+            if (current.length() > 0 && current.length() + unit.length() + 1 > maxChars) {
+                String chunk = current.toString();
+                chunks.add(chunk);
+                int room = maxChars - unit.length() - 1;
+                current = new StringBuilder(overlap(chunk, Math.min(overlapChars, room)));
+            }
+            current.append(unit).append('\n');
+        }
+        if (!current.toString().isBlank()) {
+            chunks.add(current.toString());
+        }
+        return chunks;
+    }
+
+    private static String overlap(String chunk, int overlapChars) {
+        if (overlapChars <= 0) {
+            return "";
+        }
+        int from = Math.max(0, chunk.length() - overlapChars);
+        int lineStart = chunk.indexOf('\n', from);
+        return lineStart < 0 || lineStart + 1 >= chunk.length() ? "" : chunk.substring(lineStart + 1);
+    }
+}
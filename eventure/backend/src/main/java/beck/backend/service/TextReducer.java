@@ -0,0 +1,155 @@
+package beck.backend.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Cuts page text down before it is sent for extraction. Works on the line-per-block text both fetch
+ * tiers produce: collapses whitespace, drops boilerplate lines (cookie banners, copyright, share
+ * buttons), lines repeated across the page, runs of short menu-like lines, and finally anything that
+ * is not within a few lines of a date, time or location. Pages without any such signal are left
+ * alone after the first steps, since there is nothing to anchor on.
+ */
+@Slf4j
+@Component
+public class TextReducer {
+
+    private static final Pattern WHITESPACE = Pattern.compile("[\\s\\u00A0]+");
+
+    // Banners are short; longer lines that merely mention cookies or a copyright are content
+    private static final int BANNER_MAX_LENGTH = 120;
+
+    private static final Pattern BOILERPLATE = Pattern.compile(
+            "(?i)^(skip to|sign in|log in|login|sign up|subscribe|menu|search|share|follow us|back to top|read more)\\b|"
+                    + "^(this (web)?site|we) uses? cookies\\b|^(accept|allow|reject|manage)( all)? cookies\\b|"
+                    + "^cookie (policy|settings|preferences|notice)\\b|^(privacy policy|terms of (use|service))\\b|"
+                    + "^(©|\\(c\\)|copyright\\b)|all rights reserved\\.?$");
+
+    private static final String MONTH =
+            "(jan(uary)?|feb(ruary)?|mar(ch)?|apr(il)?|may|june?|july?|aug(ust)?|sep(t(ember)?)?|oct(ober)?|nov(ember)?|dec(ember)?)";
+
+    private static final Pattern SIGNAL = Pattern.compile(
+            "(?i)\\b" + MONTH + "\\.?\\s+\\d{1,2}\\b|"
+                    + "\\b\\d{1,2}(st|nd|rd|th)?\\s+" + MONTH + "\\b|"
+                    + "\\b(mon|tues?|wed(nes)?|thu(rs)?|fri|sat(ur)?|sun)(day)?s?\\b|\\b(today|tomorrow|tonight)\\b|"
+                    + "\\b\\d{1,4}[/.-]\\d{1,2}[/.-]\\d{2,4}\\b|\\b\\d{1,2}(:\\d{2})?\\s?(am|pm|a\\.m\\.|p\\.m\\.)|\\b\\d{1,2}:\\d{2}\\b|"
+                    + "\\b(street|st\\.|avenue|ave\\.?|road|rd\\.|blvd|boulevard|hall|room|building|campus|venue|"
+                    + "center|centre|theatre|theater|park|library|auditorium|location|where|when)\\b");
+
+    private final DistributionSummary reductionRatio;
+
+    @Value("${scraper.reduction.enabled:true}")
+    private boolean enabled;
+
+    @Value("${scraper.reduction.context-lines:3}")
+    private int contextLines;
+
+    @Value("${scraper.reduction.max-repeats:2}")
+    private int maxRepeats;
+
+    @Value("${scraper.reduction.menu-run-lines:4}")
+    private int menuRunLines;
+
+    public TextReducer(MeterRegistry meterRegistry) {
+        this.reductionRatio = DistributionSummary.builder("scraper.text.reduction.ratio")
+                .description("Fraction of page text removed before extraction")
+                .publishPercentiles(0.5, 0.9)
+                .register(meterRegistry);
+    }
+
+    public String reduce(String text) {
+        if (!enabled || text == null || text.isEmpty()) {
+            return text;
+        }
+
+        List<String> lines = new ArrayList<>();
+        Map<String, Integer> occurrences = new HashMap<>();
+        for (String raw : text.split("\\R")) {
+            String line = WHITESPACE.matcher(raw).replaceAll(" ").trim();
+            if (line.isEmpty() || isBoilerplate(line) && !hasSignal(line)) {
+                continue;
+            }
+            lines.add(line);
+            occurrences.merge(line.toLowerCase(), 1, Integer::sum);
+        }
+
+        // Headers, footers and per-card buttons repeat; real event lines rarely do word for word
+        lines.removeIf(line -> occurrences.get(line.toLowerCase()) > maxRepeats && !hasSignal(line));
+        lines = dropMenuRuns(lines);
+        lines = keepNearSignals(lines);
+
+        String reduced = String.join("\n", lines);
+        double ratio = 1.0 - (double) reduced.length() / text.length();
+        reductionRatio.record(ratio);
+        log.info("Reduced page text from {} to {} characters ({}% removed)",
+                text.length(), reduced.length(), Math.round(ratio * 100));
+        return reduced;
+    }
+
+    static boolean isBoilerplate(String line) {
+        return line.length() <= BANNER_MAX_LENGTH && BOILERPLATE.matcher(line).find();
+    }
+
+    static boolean hasSignal(String line) {
+        return SIGNAL.matcher(line).find();
+    }
+
+    // Navigation and footer link lists render as many consecutive one- to three-word lines
+    private List<String> dropMenuRuns(List<String> lines) {
+        List<String> kept = new ArrayList<>(lines.size());
+        int runStart = 0;
+        for (int i = 0; i <= lines.size(); i++) {
+            if (i < lines.size() && isMenuLike(lines.get(i))) {
+                continue;
+            }
+            if (i - runStart < menuRunLines) {
+                kept.addAll(lines.subList(runStart, i));
+            }
+            if (i < lines.size()) {
+                kept.add(lines.get(i));
+            }
+            runStart = i + 1;
+        }
+        return kept;
+    }
+
+    private static boolean isMenuLike(String line) {
+        return line.length() <= 30 && line.split(" ").length <= 3 && !hasSignal(line);
+    }
+
+    // Titles and descriptions sit next to their date/time/place, so keep a window around each signal line
+    private List<String> keepNearSignals(List<String> lines) {
+        boolean[] keep = new boolean[lines.size()];
+        boolean anySignal = false;
+        for (int i = 0; i < lines.size(); i++) {
+            if (hasSignal(lines.get(i))) {
+                anySignal = true;
+                int from = Math.max(0, i - contextLines);
+                int to = Math.min(lines.size() - 1, i + contextLines);
+                for (int j = from; j <= to; j++) {
+                    keep[j] = true;
+                }
+            }
+        }
+        if (!anySignal) {
+            return lines;
+        }
+
+        List<String> kept = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            if (keep[i]) {
+                kept.add(lines.get(i));
+            }
+        }
+        return kept;
+    }
+}
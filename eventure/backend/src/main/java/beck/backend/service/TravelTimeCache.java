@@ -0,0 +1,208 @@
+package beck.backend.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Walking times between addresses, bounded (W-TinyLFU eviction) and expiring ttl-days after they
+ * were fetched. Keys are normalized addresses in sorted order, so "12 Main Street" -> "Hall B" and
+ * "hall b" -> "12 main st." share one entry. The cache is written to a small binary snapshot
+ * (snapshot-path, ~/.eventure/travel-times.bin by default, outside any checkout) periodically and on
+ * shutdown, and reloaded at startup with each entry's original fetch time.
+ * Pairs the API could not route are remembered for a much shorter unroutable-ttl-minutes, so a bad
+ * address isn't re-requested on every check but is retried once it may have been fixed; those are
+ * not written to the snapshot.
+ */
+@Slf4j
+@Component
+public class TravelTimeCache {
+
+    private static final int SNAPSHOT_MAGIC = 0x54545431; // "TTT1"
+
+    private static final int UNROUTABLE = -1;
+
+    // "|" also separates the two addresses in a key
+    private static final Pattern PUNCTUATION = Pattern.compile("[.,;#|]");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Map<String, String> ABBREVIATIONS = Map.ofEntries(
+            Map.entry("street", "st"), Map.entry("avenue", "ave"), Map.entry("road", "rd"),
+            Map.entry("boulevard", "blvd"), Map.entry("drive", "dr"), Map.entry("lane", "ln"),
+            Map.entry("place", "pl"), Map.entry("court", "ct"), Map.entry("north", "n"),
+            Map.entry("south", "s"), Map.entry("east", "e"), Map.entry("west", "w"),
+            Map.entry("suite", "ste"), Map.entry("building", "bldg"));
+
+    private record TravelTime(int minutes, long fetchedAt) {
+        boolean unroutable() {
+            return minutes == UNROUTABLE;
+        }
+    }
+
+    private final Cache<String, TravelTime> cache;
+    private final long ttlMillis;
+    private final long unroutableTtlMillis;
+
+    @Value("${travel.cache.snapshot-path:${user.home}/.eventure/travel-times.bin}")
+    private String snapshotPath;
+
+    public TravelTimeCache(MeterRegistry meterRegistry,
+                           @Value("${travel.cache.max-size:50000}") long maxSize,
+                           @Value("${travel.cache.ttl-days:30}") long ttlDays,
+                           @Value("${travel.cache.unroutable-ttl-minutes:60}") long unroutableTtlMinutes) {
+        this.ttlMillis = Duration.ofDays(ttlDays).toMillis();
+        this.unroutableTtlMillis = Duration.ofMinutes(unroutableTtlMinutes).toMillis();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, TravelTime>() {
+                    @Override
+                    public long expireAfterCreate(String key, TravelTime value, long currentTime) {
+                        long ttl = value.unroutable() ? unroutableTtlMillis : ttlMillis;
+                        long remaining = value.fetchedAt() + ttl - System.currentTimeMillis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remaining));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TravelTime value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TravelTime value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "travel.times");
+    }
+
+    /** Cached minutes, or null when the pair is unknown or known to be unroutable. */
+    public Integer get(String from, String to) {
+        TravelTime travelTime = cache.getIfPresent(key(from, to));
+        return travelTime == null || travelTime.unroutable() ? null : travelTime.minutes();
+    }
+
+    /** True for both cached times and cached unroutable pairs; either way there is nothing to fetch. */
+    public boolean contains(String from, String to) {
+        return cache.getIfPresent(key(from, to)) != null;
+    }
+
+    public boolean isUnroutable(String from, String to) {
+        TravelTime travelTime = cache.getIfPresent(key(from, to));
+        return travelTime != null && travelTime.unroutable();
+    }
+
+    public void put(String from, String to, int minutes) {
+        cache.put(key(from, to), new TravelTime(minutes, System.currentTimeMillis()));
+    }
+
+    public void putUnroutable(String from, String to) {
+        cache.put(key(from, to), new TravelTime(UNROUTABLE, System.currentTimeMillis()));
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    /** Normalized form used for keys: NFKC, lower case, no punctuation, common street words abbreviated. */
+    static String normalize(String address) {
+        String text = Normalizer.normalize(address, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        text = PUNCTUATION.matcher(text).replaceAll(" ");
+        StringBuilder normalized = new StringBuilder();
+        for (String word : WHITESPACE.split(text.trim())) {
+            if (!normalized.isEmpty()) {
+                normalized.append(' ');
+            }
+            normalized.append(ABBREVIATIONS.getOrDefault(word, word));
+        }
+        return normalized.toString();
+    }
+
+    // Walking times are treated as symmetric, so both directions share the key
+    static String key(String from, String to) {
+        String a = normalize(from);
+        String b = normalize(to);
+        return a.compareTo(b) <= 0 ? a + "|" + b : b + "|" + a;
+    }
+
+    @PostConstruct
+    public void load() {
+        Path path = Paths.get(snapshotPath);
+        if (!Files.exists(path)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != SNAPSHOT_MAGIC) {
+                log.warn("Ignoring travel time snapshot {} with unknown format", path);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                int minutes = in.readInt();
+                long fetchedAt = in.readLong();
+                if (now - fetchedAt < ttlMillis) {
+                    cache.put(key, new TravelTime(minutes, fetchedAt));
+                    loaded++;
+                }
+            }
+            log.info("Loaded {} travel times from {}", loaded, path);
+        } catch (IOException e) {
+            log.warn("Could not read travel time snapshot {}: {}", path, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${travel.cache.snapshot-interval-ms:600000}",
+            initialDelayString = "${travel.cache.snapshot-interval-ms:600000}")
+    public void snapshot() {
+        Path path = Paths.get(snapshotPath);
+        Map<String, TravelTime> entries = new HashMap<>(cache.asMap());
+        entries.values().removeIf(TravelTime::unroutable);
+        try {
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "travel-times", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, TravelTime> entry : entries.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeInt(entry.getValue().minutes());
+                    out.writeLong(entry.getValue().fetchedAt());
+                }
+            }
+            // Replace in one step so a crash mid-write never leaves a truncated snapshot behind
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Wrote {} travel times to {}", entries.size(), path);
+        } catch (IOException e) {
+            log.warn("Could not write travel time snapshot {}: {}", path, e.getMessage());
+        }
+    }
+}
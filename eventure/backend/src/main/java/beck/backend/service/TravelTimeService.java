@@ -1,5 +1,6 @@
 package beck.backend.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -9,7 +10,16 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 
@@ -20,18 +30,34 @@ public class TravelTimeService {
     @Value("${GOOGLE_MAPS_API_KEY:}")
     private String apiKey;
 
+    private static final int MAX_ADDRESSES_PER_SIDE = 25;
+    private static final int MAX_ELEMENTS_PER_REQUEST = 100;
+
     private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final ConcurrentHashMap<String, Integer> cache = new ConcurrentHashMap<>();
+    private final TravelTimeCache cache;
+    private final SingleFlight<String, Integer> inFlight;
+
+    public TravelTimeService(TravelTimeCache cache, MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.inFlight = new SingleFlight<>("travel-time", meterRegistry);
+    }
 
     public int getTravelTimeMinutes(String address1, String address2) throws Exception {
         if (address1 == null || address2 == null || address1.isEmpty() || address2.isEmpty()) {
             throw new IllegalArgumentException("Addresses cannot be null or empty");
         }
 
-        String cacheKey = address1 + "|" + address2;
-        if (cache.containsKey(cacheKey)) {
+        if (sameAddress(address1, address2)) {
+            return 0;
+        }
+
+        Integer cached = cache.get(address1, address2);
+        if (cached != null) {
             log.debug("Cache hit for travel time: {} -> {}", address1, address2);
-            return cache.get(cacheKey);
+            return cached;
+        }
+        if (cache.isUnroutable(address1, address2)) {
+            throw new Exception("Route not found (cached)");
         }
 
         if (apiKey == null || apiKey.isEmpty()) {
@@ -39,31 +65,22 @@ public class TravelTimeService {
             return 15; 
         }
 
-        try {
-            String url = String.format(
-                "https://maps.googleapis.com/maps/api/distancematrix/json?origins=%s&destinations=%s&mode=walking&key=%s",
-                URLEncoder.encode(address1, StandardCharsets.UTF_8),
-                URLEncoder.encode(address2, StandardCharsets.UTF_8),
-                apiKey
-            );
-
-            HttpRequest request = HttpRequest.newBuilder()
-                .uri(URI.create(url))
-                .GET()
-                .build();
-
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
-            
-            if (response.statusCode() != 200) {
-                throw new Exception("Google Maps API returned status: " + response.statusCode());
-            }
+        // Concurrent misses for the same pair share one request
+        return inFlight.execute(TravelTimeCache.key(address1, address2), () -> fetchTravelTime(address1, address2));
+    }
 
-            JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
-            
-            String status = json.get("status").getAsString();
-            if (!"OK".equals(status)) {
-                throw new Exception("Google Maps API status: " + status);
-            }
+    private int fetchTravelTime(String address1, String address2) throws Exception {
+        // Another caller may have filled the cache between our miss and taking the flight
+        Integer cached = cache.get(address1, address2);
+        if (cached != null) {
+            return cached;
+        }
+        if (cache.isUnroutable(address1, address2)) {
+            throw new Exception("Route not found (cached)");
+        }
+
+        try {
+            JsonObject json = requestMatrix(List.of(address1), List.of(address2));
 
             JsonObject element = json
                 .getAsJsonArray("rows")
@@ -73,6 +90,7 @@ public class TravelTimeService {
 
             String elementStatus = element.get("status").getAsString();
             if (!"OK".equals(elementStatus)) {
+                cache.putUnroutable(address1, address2);
                 throw new Exception("Route not found: " + elementStatus);
             }
 
@@ -82,7 +100,7 @@ public class TravelTimeService {
                 .getAsInt();
 
             int minutes = (int) Math.ceil(durationSeconds / 60.0);
-            cache.put(cacheKey, minutes);
+            cache.put(address1, address2, minutes);
             
             log.info("Travel time from '{}' to '{}': {} minutes", address1, address2, minutes);
             return minutes;
@@ -92,6 +110,239 @@ public class TravelTimeService {
             throw e;
         }
     }
+    /** One Distance Matrix request; the API returns every origin paired with every destination. */
+    record MatrixRequest(List<String> origins, List<String> destinations) {
+    }
+
+    /**
+     * Travel times for every origin x destination pair, fetched with as few Distance Matrix calls as the
+     * API's per-request limits allow and cached like single lookups. Pairs already cached are not
+     * requested again; pairs the API can't route are cached as unroutable for a short while and left out
+     * of the result.
+     */
+    public Map<String, Map<String, Integer>> getTravelTimeMatrix(Collection<String> origins, Collection<String> destinations) {
+        List<String> from = distinctAddresses(origins);
+        List<String> to = distinctAddresses(destinations);
+
+        List<String> missingFrom = from.stream()
+            .filter(origin -> to.stream().anyMatch(destination -> isMissing(origin, destination)))
+            .toList();
+        List<String> missingTo = to.stream()
+            .filter(destination -> missingFrom.stream().anyMatch(origin -> isMissing(origin, destination)))
+            .toList();
+
+        if (!missingFrom.isEmpty() && !hasApiKey()) {
+            log.warn("Google Maps API key not configured, using default estimate");
+        } else if (!missingFrom.isEmpty()) {
+            // At most 25 origins, 25 destinations and 100 elements per request
+            int destinationChunk = Math.min(MAX_ADDRESSES_PER_SIDE, missingTo.size());
+            int originChunk = Math.min(MAX_ADDRESSES_PER_SIDE, MAX_ELEMENTS_PER_REQUEST / destinationChunk);
+            List<MatrixRequest> requests = new ArrayList<>();
+            for (int i = 0; i < missingFrom.size(); i += originChunk) {
+                List<String> originBatch = missingFrom.subList(i, Math.min(missingFrom.size(), i + originChunk));
+                for (int j = 0; j < missingTo.size(); j += destinationChunk) {
+                    requests.add(new MatrixRequest(originBatch,
+                        missingTo.subList(j, Math.min(missingTo.size(), j + destinationChunk))));
+                }
+            }
+            fetchAll(requests);
+            log.info("Fetched travel time matrix {}x{} in {} requests", missingFrom.size(), missingTo.size(), requests.size());
+        }
+
+        Map<String, Map<String, Integer>> matrix = new LinkedHashMap<>();
+        for (String origin : from) {
+            Map<String, Integer> row = new LinkedHashMap<>();
+            for (String destination : to) {
+                Integer minutes = lookup(origin, destination);
+                if (minutes != null) {
+                    row.put(destination, minutes);
+                }
+            }
+            matrix.put(origin, row);
+        }
+        return matrix;
+    }
+
+    /**
+     * Travel times for specific legs only, keyed origin -> destination. Uncached legs are packed into as
+     * few matrix requests as the API limits allow (see {@link #packLegs}) and those are sent concurrently,
+     * so a cold week costs a handful of parallel round trips instead of one per origin.
+     */
+    public Map<String, Map<String, Integer>> getTravelTimes(Map<String, ? extends Collection<String>> destinationsByOrigin) {
+        Map<String, List<String>> missing = new LinkedHashMap<>();
+        destinationsByOrigin.forEach((origin, destinations) -> {
+            if (origin == null || origin.isEmpty()) {
+                return;
+            }
+            for (String destination : distinctAddresses(destinations)) {
+                if (isMissing(origin, destination)) {
+                    missing.computeIfAbsent(origin, key -> new ArrayList<>()).add(destination);
+                }
+            }
+        });
+
+        if (!missing.isEmpty() && !hasApiKey()) {
+            log.warn("Google Maps API key not configured, using default estimate");
+        } else if (!missing.isEmpty()) {
+            List<MatrixRequest> requests = packLegs(missing);
+            fetchAll(requests);
+            log.info("Fetched {} travel legs in {} requests",
+                missing.values().stream().mapToInt(List::size).sum(), requests.size());
+        }
+
+        Map<String, Map<String, Integer>> times = new LinkedHashMap<>();
+        destinationsByOrigin.forEach((origin, destinations) -> {
+            if (origin == null || origin.isEmpty()) {
+                return;
+            }
+            Map<String, Integer> row = times.computeIfAbsent(origin, key -> new LinkedHashMap<>());
+            for (String destination : distinctAddresses(destinations)) {
+                Integer minutes = lookup(origin, destination);
+                if (minutes != null) {
+                    row.put(destination, minutes);
+                }
+            }
+        });
+        return times;
+    }
+
+    /**
+     * Greedily packs legs into requests within the 25 origins / 25 destinations / 100 elements limits.
+     * A request covers the full grid of its origins and destinations, so an origin's legs only join one
+     * whose grid still fits; the extra pairs that come back are cached like any other.
+     */
+    static List<MatrixRequest> packLegs(Map<String, List<String>> destinationsByOrigin) {
+        List<MatrixRequest> requests = new ArrayList<>();
+        Set<String> origins = new LinkedHashSet<>();
+        Set<String> destinations = new LinkedHashSet<>();
+        for (Map.Entry<String, List<String>> entry : destinationsByOrigin.entrySet()) {
+            String origin = entry.getKey();
+            List<String> wanted = entry.getValue();
+            for (int i = 0; i < wanted.size(); i += MAX_ADDRESSES_PER_SIDE) {
+                List<String> part = wanted.subList(i, Math.min(wanted.size(), i + MAX_ADDRESSES_PER_SIDE));
+                Set<String> mergedDestinations = new LinkedHashSet<>(destinations);
+                mergedDestinations.addAll(part);
+                int mergedOrigins = origins.size() + (origins.contains(origin) ? 0 : 1);
+                if (!origins.isEmpty() && !fits(mergedOrigins, mergedDestinations.size())) {
+                    requests.add(new MatrixRequest(List.copyOf(origins), List.copyOf(destinations)));
+                    origins.clear();
+                    destinations.clear();
+                }
+                origins.add(origin);
+                destinations.addAll(part);
+            }
+        }
+        if (!origins.isEmpty()) {
+            requests.add(new MatrixRequest(List.copyOf(origins), List.copyOf(destinations)));
+        }
+        return requests;
+    }
+
+    private static boolean fits(int origins, int destinations) {
+        return origins <= MAX_ADDRESSES_PER_SIDE && destinations <= MAX_ADDRESSES_PER_SIDE
+            && origins * destinations <= MAX_ELEMENTS_PER_REQUEST;
+    }
+
+    // Sends the requests concurrently and waits for all of them; failed chunks are logged and left uncached
+    private void fetchAll(List<MatrixRequest> requests) {
+        CompletableFuture.allOf(requests.stream()
+                .map(this::fillFromMatrix)
+                .toArray(CompletableFuture<?>[]::new))
+            .join();
+    }
+
+    private CompletableFuture<Void> fillFromMatrix(MatrixRequest matrixRequest) {
+        List<String> origins = matrixRequest.origins();
+        List<String> destinations = matrixRequest.destinations();
+        return httpClient.sendAsync(buildMatrixRequest(origins, destinations), HttpResponse.BodyHandlers.ofString())
+            .thenAccept(response -> {
+                JsonArray rows = parseMatrix(response).getAsJsonArray("rows");
+                for (int i = 0; i < origins.size(); i++) {
+                    JsonArray elements = rows.get(i).getAsJsonObject().getAsJsonArray("elements");
+                    for (int j = 0; j < destinations.size(); j++) {
+                        JsonObject element = elements.get(j).getAsJsonObject();
+                        if (!"OK".equals(element.get("status").getAsString())) {
+                            cache.putUnroutable(origins.get(i), destinations.get(j));
+                            continue;
+                        }
+                        int durationSeconds = element.getAsJsonObject("duration").get("value").getAsInt();
+                        cache.put(origins.get(i), destinations.get(j), (int) Math.ceil(durationSeconds / 60.0));
+                    }
+                }
+            })
+            .exceptionally(e -> {
+                log.warn("Failed to fetch travel time matrix chunk {}x{}: {}", origins.size(), destinations.size(), e.getMessage());
+                return null;
+            });
+    }
+
+    private JsonObject requestMatrix(List<String> origins, List<String> destinations) throws Exception {
+        return parseMatrix(httpClient.send(buildMatrixRequest(origins, destinations), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    private HttpRequest buildMatrixRequest(List<String> origins, List<String> destinations) {
+        String url = String.format(
+            "https://maps.googleapis.com/maps/api/distancematrix/json?origins=%s&destinations=%s&mode=walking&key=%s",
+            URLEncoder.encode(joinAddresses(origins), StandardCharsets.UTF_8),
+            URLEncoder.encode(joinAddresses(destinations), StandardCharsets.UTF_8),
+            apiKey
+        );
+
+        return HttpRequest.newBuilder()
+            .uri(URI.create(url))
+            .GET()
+            .build();
+    }
+
+    private static JsonObject parseMatrix(HttpResponse<String> response) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Google Maps API returned status: " + response.statusCode());
+        }
+
+        JsonObject json = JsonParser.parseString(response.body()).getAsJsonObject();
+        
+        String status = json.get("status").getAsString();
+        if (!"OK".equals(status)) {
+            throw new IllegalStateException("Google Maps API status: " + status);
+        }
+        return json;
+    }
+
+    // The API separates addresses with "|", so one inside an address would shift every later row or column
+    private static String joinAddresses(List<String> addresses) {
+        return addresses.stream()
+            .map(address -> address.replace('|', ' '))
+            .collect(Collectors.joining("|"));
+    }
+
+    // Cached time, 0 for the same place, or the default estimate when there is no API key
+    private Integer lookup(String origin, String destination) {
+        Integer minutes = sameAddress(origin, destination) ? Integer.valueOf(0) : cache.get(origin, destination);
+        if (minutes == null && !hasApiKey()) {
+            minutes = 15;
+        }
+        return minutes;
+    }
+
+    private boolean hasApiKey() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    private boolean isMissing(String origin, String destination) {
+        return !sameAddress(origin, destination) && !cache.contains(origin, destination);
+    }
+
+    private static boolean sameAddress(String address1, String address2) {
+        return TravelTimeCache.normalize(address1).equals(TravelTimeCache.normalize(address2));
+    }
+
+    private static List<String> distinctAddresses(Collection<String> addresses) {
+        return addresses.stream()
+            .filter(address -> address != null && !address.isEmpty())
+            .distinct()
+            .toList();
+    }
+
     public void clearCache() {
         cache.clear();
         log.info("Travel time cache cleared");
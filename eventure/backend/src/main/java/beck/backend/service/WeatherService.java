@@ -1,7 +1,13 @@
 package beck.backend.service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import com.google.gson.JsonArray;
@@ -14,95 +20,343 @@ import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Weather per location and day. One Open-Meteo call returns the whole daily forecast, so the full
+ * vector is cached per location (TTL-bounded) and every day is served from it; coordinates come from
+ * a separate long-lived geocode cache since addresses don't move. Expired forecasts are served
+ * immediately while a refresh runs in the background, and recently requested locations are refreshed
+ * ahead of expiry on a schedule, so callers only wait on upstream for locations never seen before.
+ */
 @Slf4j
 @Service
 public class WeatherService {
 
+    // Geocoder answers that say nothing about the address itself and may succeed on the next try
+    private static final Set<String> TRANSIENT_GEOCODE_STATUSES = Set.of("OVER_QUERY_LIMIT", "UNKNOWN_ERROR");
+
     @Value("${GOOGLE_MAPS_API_KEY:}")
     private String apiKey;
 
-    private final HttpClient httpClient = HttpClient.newHttpClient();
-    private final Map<String, WeatherData> cache = new HashMap<>();
+    @Value("${weather.forecast.days:16}")
+    private int forecastDays;
+
+    @Value("${weather.request.deadline-ms:3000}")
+    private long deadlineMs;
+
+    @Value("${weather.forecast.stale-while-revalidate:true}")
+    private boolean staleWhileRevalidate;
+
+    @Value("${weather.refresh.interval-ms:600000}")
+    private long refreshIntervalMs;
+
+    private record Coordinates(double lat, double lng) {
+    }
+
+    // The geocoder answered but did not resolve the address (ZERO_RESULTS, INVALID_REQUEST, ...)
+    private static class GeocodeRejectedException extends IllegalStateException {
+        GeocodeRejectedException(String status) {
+            super("Geocoding failed: " + status);
+        }
+    }
+
+    private record Forecast(LocalDate firstDay, int[] temperatures, int[] codes, long fetchedAt) {
+        WeatherData day(LocalDate date) {
+            long index = ChronoUnit.DAYS.between(firstDay, date);
+            if (index < 0 || index >= temperatures.length) {
+                return null;
+            }
+            int code = codes[(int) index];
+            return new WeatherData(mapWeatherCode(code), temperatures[(int) index], getWeatherDescription(code));
+        }
+    }
+
+    private final HttpClient httpClient;
+    // Bounds every upstream call so a hung connection can't hold a single-flight slot forever
+    private final Duration upstreamTimeout;
+    private final Cache<String, Forecast> forecasts;
+    // Last good forecast per location, kept well past the TTL for answering when a refresh is late
+    private final Cache<String, Forecast> staleForecasts;
+    private final Cache<String, Coordinates> geocodes;
+    private final SingleFlight<String, Forecast> inFlight;
+    // Locations asked for recently that resolved (lower-case key -> location as typed), kept warm by refreshHotLocations
+    private final Cache<String, String> hotLocations;
+    // Locations the geocoder recently rejected, not retried until the entry expires
+    private final Cache<String, String> failedGeocodes;
+    private final long forecastTtlMillis;
+    private final Counter staleServed;
+
+    public WeatherService(MeterRegistry meterRegistry,
+                          @Value("${weather.forecast.ttl-minutes:60}") long forecastTtlMinutes,
+                          @Value("${weather.forecast.max-size:1000}") long forecastMaxSize,
+                          @Value("${weather.forecast.stale-hours:48}") long staleHours,
+                          @Value("${weather.geocode.ttl-days:30}") long geocodeTtlDays,
+                          @Value("${weather.geocode.max-size:10000}") long geocodeMaxSize,
+                          @Value("${weather.geocode.failure-ttl-minutes:15}") long geocodeFailureTtlMinutes,
+                          @Value("${weather.refresh.hot-minutes:120}") long hotMinutes,
+                          @Value("${weather.refresh.max-locations:200}") long hotMaxSize,
+                          @Value("${weather.upstream.timeout-ms:5000}") long upstreamTimeoutMs) {
+        this.upstreamTimeout = Duration.ofMillis(upstreamTimeoutMs);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(upstreamTimeout)
+                .build();
+        this.forecastTtlMillis = Duration.ofMinutes(forecastTtlMinutes).toMillis();
+        this.forecasts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(forecastTtlMinutes))
+                .maximumSize(forecastMaxSize)
+                .recordStats()
+                .build();
+        this.staleForecasts = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofHours(staleHours))
+                .maximumSize(forecastMaxSize)
+                .build();
+        this.geocodes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofDays(geocodeTtlDays))
+                .maximumSize(geocodeMaxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, forecasts, "weather.forecasts");
+        this.failedGeocodes = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(geocodeFailureTtlMinutes))
+                .maximumSize(geocodeMaxSize)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, geocodes, "weather.geocodes");
+        this.inFlight = new SingleFlight<>("weather", meterRegistry);
+        this.hotLocations = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(hotMinutes))
+                .maximumSize(hotMaxSize)
+                .build();
+        this.staleServed = meterRegistry.counter("weather.forecast.stale.served");
+    }
 
     public WeatherData getWeather(String location, LocalDate date) {
-        String cacheKey = location + "-" + date.toString();
-        
-        if (cache.containsKey(cacheKey)) {
-            return cache.get(cacheKey);
+        return getWeather(location, date, 1).get(date);
+    }
+
+    /** Weather for days consecutive dates starting at from, all served from one cached forecast. */
+    public Map<LocalDate, WeatherData> getWeather(String location, LocalDate from, int days) {
+        return getWeatherAsync(location, from, days).join();
+    }
+
+    /**
+     * Non-blocking form of {@link #getWeather(String, LocalDate, int)}. A fetch that misses the deadline
+     * keeps running in the background to warm the cache, while this call answers from the last good
+     * forecast for the location if there is one, or the default weather otherwise.
+     */
+    public CompletableFuture<Map<LocalDate, WeatherData>> getWeatherAsync(String location, LocalDate from, int days) {
+        String key = location.trim().toLowerCase(Locale.ROOT);
+        return forecastAsync(location, key)
+            .copy()
+            .orTimeout(deadlineMs, TimeUnit.MILLISECONDS)
+            .exceptionally(e -> {
+                Forecast stale = staleForecasts.getIfPresent(key);
+                log.warn("Weather for {} not available in time ({}), using {}", location, e.getMessage(),
+                    stale != null ? "forecast from " + stale.firstDay() : "default weather");
+                return stale;
+            })
+            .thenApply(forecast -> {
+                // Only places that have resolved at some point are worth keeping warm
+                if (forecast != null) {
+                    hotLocations.get(key, ignored -> location);
+                }
+                return toDays(location, forecast, from, days);
+            });
+    }
+
+    /** Weather for several locations fetched concurrently, each under its own deadline. */
+    public CompletableFuture<Map<String, Map<LocalDate, WeatherData>>> getWeatherBatchAsync(
+            Collection<String> locations, LocalDate from, int days) {
+        Map<String, CompletableFuture<Map<LocalDate, WeatherData>>> futures = new LinkedHashMap<>();
+        for (String location : locations) {
+            futures.putIfAbsent(location, getWeatherAsync(location, from, days));
         }
+        return CompletableFuture.allOf(futures.values().toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> {
+                Map<String, Map<LocalDate, WeatherData>> weather = new LinkedHashMap<>();
+                futures.forEach((location, future) -> weather.put(location, future.join()));
+                return weather;
+            });
+    }
 
+    private Map<LocalDate, WeatherData> toDays(String location, Forecast forecast, LocalDate from, int days) {
+        Map<LocalDate, WeatherData> weather = new LinkedHashMap<>();
+        for (int i = 0; i < days; i++) {
+            LocalDate date = from.plusDays(i);
+            WeatherData day = forecast == null ? null : forecast.day(date);
+            if (forecast != null && day == null) {
+                log.warn("No forecast for {} on {}, using default weather", location, date);
+            }
+            weather.put(date, day != null ? day : new WeatherData("sunny", 72, "Clear"));
+        }
+        return weather;
+    }
+
+    private CompletableFuture<Forecast> forecastAsync(String location, String key) {
         if (apiKey == null || apiKey.isEmpty()) {
             log.warn("Google Maps API key not configured, using default weather");
-            return new WeatherData("sunny", 72, "Clear");
+            return CompletableFuture.completedFuture(null);
         }
 
-        try {
-            String geocodeUrl = String.format(
-                "https://maps.googleapis.com/maps/api/geocode/json?address=%s&key=%s",
-                URLEncoder.encode(location, StandardCharsets.UTF_8),
-                apiKey
-            );
+        Forecast cached = forecasts.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        Forecast stale = staleWhileRevalidate ? staleForecasts.getIfPresent(key) : null;
+        if (stale != null) {
+            staleServed.increment();
+            refresh(location, key);
+            return CompletableFuture.completedFuture(stale);
+        }
+        // Concurrent misses for the same location share one geocode + forecast round trip
+        return inFlight.executeAsync(key, () -> {
+            Forecast current = forecasts.getIfPresent(key);
+            if (current != null) {
+                return CompletableFuture.completedFuture(current);
+            }
+            return fetchAndStore(location, key);
+        });
+    }
 
-            HttpRequest geocodeReq = HttpRequest.newBuilder()
-                .uri(URI.create(geocodeUrl))
-                .GET()
-                .build();
+    /** Re-fetches hot locations whose forecast would expire before the next run. */
+    @Scheduled(fixedDelayString = "${weather.refresh.interval-ms:600000}",
+            initialDelayString = "${weather.refresh.interval-ms:600000}")
+    public void refreshHotLocations() {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return;
+        }
+        long refreshBefore = System.currentTimeMillis() - forecastTtlMillis + refreshIntervalMs;
+        int refreshed = 0;
+        for (Map.Entry<String, String> hot : hotLocations.asMap().entrySet()) {
+            Forecast current = forecasts.getIfPresent(hot.getKey());
+            if (current == null || current.fetchedAt() <= refreshBefore) {
+                refresh(hot.getValue(), hot.getKey());
+                refreshed++;
+            }
+        }
+        if (refreshed > 0) {
+            log.info("Refreshing weather for {} of {} hot locations", refreshed, hotLocations.estimatedSize());
+        }
+    }
 
-            HttpResponse<String> geocodeResp = httpClient.send(geocodeReq, HttpResponse.BodyHandlers.ofString());
-            JsonObject geocodeJson = JsonParser.parseString(geocodeResp.body()).getAsJsonObject();
+    // Fire-and-forget; joins a fetch already in flight for the key instead of starting another
+    private void refresh(String location, String key) {
+        inFlight.executeAsync(key, () -> fetchAndStore(location, key));
+    }
 
-            if (!"OK".equals(geocodeJson.get("status").getAsString())) {
-                throw new Exception("Geocoding failed");
+    private CompletableFuture<Forecast> fetchAndStore(String location, String key) {
+        return fetchForecastAsync(location, key).whenComplete((forecast, error) -> {
+            if (error != null) {
+                log.error("Failed to get weather for {}: {}", location, error.getMessage());
+                return;
             }
+            forecasts.put(key, forecast);
+            staleForecasts.put(key, forecast);
+        });
+    }
 
-            JsonObject location_data = geocodeJson
-                .getAsJsonArray("results")
-                .get(0).getAsJsonObject()
-                .getAsJsonObject("geometry")
-                .getAsJsonObject("location");
+    private CompletableFuture<Forecast> fetchForecastAsync(String location, String key) {
+        String failure = failedGeocodes.getIfPresent(key);
+        if (failure != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Geocoding failed recently: " + failure));
+        }
 
-            double lat = location_data.get("lat").getAsDouble();
-            double lng = location_data.get("lng").getAsDouble();
+        Coordinates cached = geocodes.getIfPresent(key);
+        CompletableFuture<Coordinates> coordinates = cached != null
+            ? CompletableFuture.completedFuture(cached)
+            : geocodeAsync(location).whenComplete((found, error) -> {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                if (cause instanceof GeocodeRejectedException) {
+                    // Only a rejection is worth remembering; timeouts and connection errors are retried next time
+                    failedGeocodes.put(key, cause.getMessage());
+                } else if (error == null) {
+                    geocodes.put(key, found);
+                }
+            });
 
+        return coordinates.thenCompose(point -> {
             String weatherUrl = String.format(
-                "https://api.open-meteo.com/v1/forecast?latitude=%.4f&longitude=%.4f&daily=temperature_2m_max,weathercode&timezone=auto",
-                lat, lng
+                "https://api.open-meteo.com/v1/forecast?latitude=%.4f&longitude=%.4f&daily=temperature_2m_max,weathercode&forecast_days=%d&timezone=auto",
+                point.lat(), point.lng(), forecastDays
             );
 
             HttpRequest weatherReq = HttpRequest.newBuilder()
                 .uri(URI.create(weatherUrl))
+                .timeout(upstreamTimeout)
                 .GET()
                 .build();
 
-            HttpResponse<String> weatherResp = httpClient.send(weatherReq, HttpResponse.BodyHandlers.ofString());
-            JsonObject weatherJson = JsonParser.parseString(weatherResp.body()).getAsJsonObject();
+            return httpClient.sendAsync(weatherReq, HttpResponse.BodyHandlers.ofString());
+        }).thenApply(weatherResp -> {
+            Forecast forecast = parseForecast(weatherResp.body());
+            log.info("Fetched {}-day forecast for {} starting {}", forecast.temperatures().length, location, forecast.firstDay());
+            return forecast;
+        });
+    }
 
-            JsonObject daily = weatherJson.getAsJsonObject("daily");
-            JsonArray temps = daily.getAsJsonArray("temperature_2m_max");
-            JsonArray codes = daily.getAsJsonArray("weathercode");
-            int temp = temps.get(0).getAsInt();
-            int weatherCode = codes.get(0).getAsInt();
+    private static Forecast parseForecast(String body) {
+        JsonObject weatherJson = JsonParser.parseString(body).getAsJsonObject();
 
-            String condition = mapWeatherCode(weatherCode);
-            String description = getWeatherDescription(weatherCode);
+        JsonObject daily = weatherJson.getAsJsonObject("daily");
+        JsonArray times = daily.getAsJsonArray("time");
+        JsonArray temps = daily.getAsJsonArray("temperature_2m_max");
+        JsonArray codes = daily.getAsJsonArray("weathercode");
 
-            WeatherData weatherData = new WeatherData(condition, temp, description);
-            cache.put(cacheKey, weatherData);
+        int days = Math.min(temps.size(), codes.size());
+        int[] temperatures = new int[days];
+        int[] weatherCodes = new int[days];
+        for (int i = 0; i < days; i++) {
+            temperatures[i] = temps.get(i).isJsonNull() ? 72 : temps.get(i).getAsInt();
+            weatherCodes[i] = codes.get(i).isJsonNull() ? 2 : codes.get(i).getAsInt();
+        }
+        return new Forecast(LocalDate.parse(times.get(0).getAsString()), temperatures, weatherCodes, System.currentTimeMillis());
+    }
 
-            log.info("Weather for {} on {}: {} ({}°F)", location, date, description, temp);
-            return weatherData;
+    private CompletableFuture<Coordinates> geocodeAsync(String location) {
+        String geocodeUrl = String.format(
+            "https://maps.googleapis.com/maps/api/geocode/json?address=%s&key=%s",
+            URLEncoder.encode(location, StandardCharsets.UTF_8),
+            apiKey
+        );
 
-        } catch (Exception e) {
-            log.error("Failed to get weather: {}", e.getMessage(), e);
-            return new WeatherData("sunny", 72, "Clear");
-        }
+        HttpRequest geocodeReq = HttpRequest.newBuilder()
+            .uri(URI.create(geocodeUrl))
+            .timeout(upstreamTimeout)
+            .GET()
+            .build();
+
+        return httpClient.sendAsync(geocodeReq, HttpResponse.BodyHandlers.ofString()).thenApply(geocodeResp -> {
+            JsonObject geocodeJson = JsonParser.parseString(geocodeResp.body()).getAsJsonObject();
+
+            String status = geocodeJson.get("status").getAsString();
+            if (TRANSIENT_GEOCODE_STATUSES.contains(status)) {
+                throw new IllegalStateException("Geocoding failed: " + status);
+            }
+            if (!"OK".equals(status)) {
+                throw new GeocodeRejectedException(status);
+            }
+
+            JsonObject location_data = geocodeJson
+                .getAsJsonArray("results")
+                .get(0).getAsJsonObject()
+                .getAsJsonObject("geometry")
+                .getAsJsonObject("location");
+
+            return new Coordinates(location_data.get("lat").getAsDouble(), location_data.get("lng").getAsDouble());
+        });
     }
 
-    private String mapWeatherCode(int code) {
+    private static String mapWeatherCode(int code) {
         if (code == 0 || code == 1) return "sunny";
         if (code == 2 || code == 3) return "cloudy";
         if (code >= 51 && code <= 67) return "rainy";
@@ -111,7 +365,7 @@ public class WeatherService {
         return "cloudy";
     }
 
-    private String getWeatherDescription(int code) {
+    private static String getWeatherDescription(int code) {
         return switch (code) {
             case 0 -> "Clear sky";
             case 1 -> "Mainly clear";
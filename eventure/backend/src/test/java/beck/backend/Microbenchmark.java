@@ -0,0 +1,52 @@
+package beck.backend;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Supplier;
+
+/**
+ * Minimal timing and allocation harness for the before/after comparisons in the *BenchmarkTest
+ * classes. Runs the operation on the calling thread for a warmup round and a measured round and
+ * reports the mean time and the bytes allocated per call. Good enough to show an order-of-magnitude
+ * difference, not a replacement for JMH. Those tests only run with -Dbenchmarks=true.
+ */
+public final class Microbenchmark {
+
+    public record Result(String name, double nanosPerOp, double bytesPerOp) {
+        @Override
+        public String toString() {
+            return String.format("%-40s %10.0f ns/op %10.0f B/op", name, nanosPerOp, bytesPerOp);
+        }
+    }
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // Results are folded in here so the JIT can't drop the measured work
+    private static volatile int sink;
+
+    private Microbenchmark() {
+    }
+
+    public static Result measure(String name, int warmup, int iterations, Supplier<?> operation) {
+        run(warmup, operation);
+
+        long threadId = Thread.currentThread().getId();
+        long bytesBefore = THREADS.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        run(iterations, operation);
+        long elapsed = System.nanoTime() - start;
+        long bytes = THREADS.getThreadAllocatedBytes(threadId) - bytesBefore;
+
+        Result result = new Result(name, (double) elapsed / iterations, (double) bytes / iterations);
+        System.out.println(result);
+        return result;
+    }
+
+    private static void run(int iterations, Supplier<?> operation) {
+        int hash = 0;
+        for (int i = 0; i < iterations; i++) {
+            hash += System.identityHashCode(operation.get());
+        }
+        sink += hash;
+    }
+}
@@ -0,0 +1,42 @@
+package beck.backend.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class EventTest {
+
+    @Test
+    void dateBucketFromImmutableList() {
+        assertThat(Event.dateBucket(List.of(3, 14, 2025))).isEqualTo("2025-03-14");
+    }
+
+    @Test
+    void dateBucketIsNullForIncompleteOrInvalidDates() {
+        assertThat(Event.dateBucket(null)).isNull();
+        assertThat(Event.dateBucket(List.of(3, 14))).isNull();
+        assertThat(Event.dateBucket(Arrays.asList(3, null, 2025))).isNull();
+        assertThat(Event.dateBucket(List.of(2, 30, 2025))).isNull();
+    }
+
+    @Test
+    void dateBucketStaysOutOfJson() throws Exception {
+        Event event = new Event();
+        event.setTitle("Jazz Night");
+        event.setDate(List.of(3, 14, 2025));
+        // Same defaults as the MVC message converter
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+
+        String json = mapper.writeValueAsString(event);
+        Event read = mapper.readValue(json, Event.class);
+
+        assertThat(json).doesNotContain("dateBucket");
+        assertThat(read.getDate()).containsExactly(3, 14, 2025);
+        assertThat(read.getDateBucket()).isEqualTo("2025-03-14");
+    }
+}
@@ -0,0 +1,112 @@
+package beck.backend.repository;
+
+import beck.backend.model.Event;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableResponse;
+import software.amazon.awssdk.services.dynamodb.model.GlobalSecondaryIndexDescription;
+import software.amazon.awssdk.services.dynamodb.model.IndexStatus;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+import software.amazon.awssdk.services.dynamodb.model.TableDescription;
+import software.amazon.awssdk.services.dynamodb.model.UpdateTableRequest;
+import software.amazon.awssdk.services.dynamodb.paginators.ScanIterable;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EventRepositoryTest {
+
+    private DynamoDbClient client;
+    private EventRepository repository;
+    private final AtomicBoolean indexActive = new AtomicBoolean();
+
+    @BeforeEach
+    void setUp() {
+        client = mock(DynamoDbClient.class);
+        EventCache cache = new EventCache(new SimpleMeterRegistry(), false, 100, 4, 60);
+        repository = new EventRepository(DynamoDbEnhancedClient.builder().dynamoDbClient(client).build(), client, cache);
+        ReflectionTestUtils.setField(repository, "indexPollIntervalMs", 1L);
+        ReflectionTestUtils.setField(repository, "indexWaitTimeoutSeconds", 5L);
+
+        Event event = new Event();
+        event.setId("evt-1");
+        event.setTitle("Jazz Night");
+        event.setDate(List.of(3, 14, 2025));
+        when(client.scanPaginator(any(ScanRequest.class)))
+                .thenAnswer(invocation -> new ScanIterable(client, invocation.getArgument(0)));
+        when(client.scan(any(ScanRequest.class))).thenReturn(ScanResponse.builder()
+                .items(List.of(EventTableSchema.SCHEMA.itemToMap(event, true)))
+                .build());
+        when(client.putItem(any(PutItemRequest.class))).thenAnswer(invocation -> {
+            assertThat(indexActive).as("backfill waits for the index").isTrue();
+            return PutItemResponse.builder().build();
+        });
+    }
+
+    @Test
+    void backfillsOnlyOnceTheNewIndexIsActive() {
+        Deque<TableDescription> states = new ArrayDeque<>(List.of(
+                table(null), table(IndexStatus.CREATING), table(IndexStatus.CREATING), table(IndexStatus.ACTIVE)));
+        stubDescribe(states);
+
+        repository.createTableIfNotExists();
+
+        verify(client).updateTable(any(UpdateTableRequest.class));
+        verify(client).putItem(any(PutItemRequest.class));
+        assertThat(states).hasSize(1);
+    }
+
+    @Test
+    void skipsTheBackfillWhenTheIndexNeverBecomesActive() {
+        ReflectionTestUtils.setField(repository, "indexWaitTimeoutSeconds", 0L);
+        stubDescribe(new ArrayDeque<>(List.of(table(null), table(IndexStatus.CREATING))));
+
+        repository.createTableIfNotExists();
+
+        verify(client).updateTable(any(UpdateTableRequest.class));
+        verify(client, never()).putItem(any(PutItemRequest.class));
+    }
+
+    // Events table descriptions are served in order, the last one repeating; the counter table just exists
+    private void stubDescribe(Deque<TableDescription> states) {
+        when(client.describeTable(any(DescribeTableRequest.class))).thenAnswer(invocation -> {
+            DescribeTableRequest request = invocation.getArgument(0);
+            if (!EventRepository.TABLE_NAME.equals(request.tableName())) {
+                return DescribeTableResponse.builder().table(TableDescription.builder().build()).build();
+            }
+            TableDescription table = states.size() > 1 ? states.poll() : states.peek();
+            boolean active = table.hasGlobalSecondaryIndexes()
+                    && table.globalSecondaryIndexes().get(0).indexStatus() == IndexStatus.ACTIVE;
+            indexActive.set(active);
+            return DescribeTableResponse.builder().table(table).build();
+        });
+    }
+
+    private static TableDescription table(IndexStatus indexStatus) {
+        TableDescription.Builder table = TableDescription.builder().tableName(EventRepository.TABLE_NAME);
+        if (indexStatus != null) {
+            table.globalSecondaryIndexes(GlobalSecondaryIndexDescription.builder()
+                    .indexName(Event.DATE_INDEX)
+                    .indexStatus(indexStatus)
+                    .build());
+        }
+        return table.build();
+    }
+}
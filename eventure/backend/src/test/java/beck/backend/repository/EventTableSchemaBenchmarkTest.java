@@ -0,0 +1,113 @@
+package beck.backend.repository;
+
+import beck.backend.Microbenchmark;
+import beck.backend.model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbEnhancedClient;
+import software.amazon.awssdk.enhanced.dynamodb.DynamoDbTable;
+import software.amazon.awssdk.enhanced.dynamodb.Key;
+import software.amazon.awssdk.enhanced.dynamodb.TableSchema;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.PutItemResponse;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Client-side cost of save and findById with a table handle built per call from the reflective bean
+ * schema (how EventRepository used to work) against the shared handle over EventTableSchema. The
+ * DynamoDB client is an in-memory stub, so only mapping, request building and schema setup are timed.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=EventTableSchemaBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EventTableSchemaBenchmarkTest {
+
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private DynamoDbEnhancedClient enhancedClient;
+    private Event event;
+    private Key key;
+
+    @BeforeEach
+    void setUp() {
+        StubDynamoDbClient client = new StubDynamoDbClient();
+        enhancedClient = DynamoDbEnhancedClient.builder().dynamoDbClient(client).build();
+
+        event = new Event();
+        event.setId("evt-1");
+        event.setTitle("Jazz Night");
+        event.setDate(List.of(3, 14, 2025));
+        event.setStartTime(1140);
+        event.setEndTime(1260);
+        event.setAddress("123 Main St, Springfield, USA");
+        event.setDescription("Live jazz in the park. Free entry.");
+        event.setTimeSensitive(true);
+        event.setUrl("https://example.com/events");
+        event.setCreatedAt(1_700_000_000_000L);
+        event.setUpdatedAt(1_700_000_000_000L);
+        client.item = EventTableSchema.SCHEMA.itemToMap(event, true);
+        key = Key.builder().partitionValue(event.getId()).build();
+    }
+
+    @Test
+    void save() {
+        DynamoDbTable<Event> shared = enhancedClient.table(EventRepository.TABLE_NAME, EventTableSchema.SCHEMA);
+
+        Microbenchmark.Result before = Microbenchmark.measure("save, fromBean table per call", WARMUP, ITERATIONS, () -> {
+            enhancedClient.table(EventRepository.TABLE_NAME, TableSchema.fromBean(Event.class)).putItem(event);
+            return event;
+        });
+        Microbenchmark.Result after = Microbenchmark.measure("save, shared static table", WARMUP, ITERATIONS, () -> {
+            shared.putItem(event);
+            return event;
+        });
+
+        assertThat(after.bytesPerOp()).isLessThan(before.bytesPerOp());
+    }
+
+    @Test
+    void findById() {
+        DynamoDbTable<Event> shared = enhancedClient.table(EventRepository.TABLE_NAME, EventTableSchema.SCHEMA);
+
+        Microbenchmark.Result before = Microbenchmark.measure("findById, fromBean table per call", WARMUP, ITERATIONS,
+                () -> enhancedClient.table(EventRepository.TABLE_NAME, TableSchema.fromBean(Event.class)).getItem(key));
+        Microbenchmark.Result after = Microbenchmark.measure("findById, shared static table", WARMUP, ITERATIONS,
+                () -> shared.getItem(key));
+
+        assertThat(shared.getItem(key).getTitle()).isEqualTo("Jazz Night");
+        assertThat(after.bytesPerOp()).isLessThan(before.bytesPerOp());
+    }
+
+    private static final class StubDynamoDbClient implements DynamoDbClient {
+
+        private Map<String, AttributeValue> item = Map.of();
+
+        @Override
+        public PutItemResponse putItem(PutItemRequest request) {
+            return PutItemResponse.builder().build();
+        }
+
+        @Override
+        public GetItemResponse getItem(GetItemRequest request) {
+            return GetItemResponse.builder().item(item).build();
+        }
+
+        @Override
+        public String serviceName() {
+            return SERVICE_NAME;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
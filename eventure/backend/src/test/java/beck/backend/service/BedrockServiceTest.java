@@ -0,0 +1,100 @@
+package beck.backend.service;
+
+import beck.backend.model.ChatRequest;
+import beck.backend.model.ChatResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeAsyncClient;
+import software.amazon.awssdk.services.bedrockruntime.BedrockRuntimeClient;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelRequest;
+import software.amazon.awssdk.services.bedrockruntime.model.InvokeModelResponse;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BedrockServiceTest {
+
+    private static final String RESPONSE = """
+            {"content": [{"type": "text", "text": "[]"}],
+             "usage": {"input_tokens": 1500, "output_tokens": 20,
+                       "cache_read_input_tokens": 1200, "cache_creation_input_tokens": 0}}
+            """;
+
+    private BedrockRuntimeClient client;
+    private SimpleMeterRegistry meterRegistry;
+    private BedrockService service;
+
+    @BeforeEach
+    void setUp() {
+        client = mock(BedrockRuntimeClient.class);
+        BedrockGateway gateway = mock(BedrockGateway.class);
+        when(gateway.callTimeout()).thenReturn(Duration.ofSeconds(90));
+        when(gateway.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+        when(client.invokeModel(any(InvokeModelRequest.class)))
+                .thenReturn(InvokeModelResponse.builder().body(SdkBytes.fromUtf8String(RESPONSE)).build());
+
+        meterRegistry = new SimpleMeterRegistry();
+        service = new BedrockService(client, mock(BedrockRuntimeAsyncClient.class), gateway, meterRegistry);
+        ReflectionTestUtils.setField(service, "promptCacheEnabled", true);
+    }
+
+    @Test
+    void marksTheSystemBlockAsACacheCheckpoint() {
+        service.chat(request(true));
+
+        assertThat(sentSystemBlock().getJSONObject("cache_control").getString("type")).isEqualTo("ephemeral");
+    }
+
+    @Test
+    void leavesTheMarkerOffWhenNotRequestedOrDisabled() {
+        service.chat(request(false));
+        assertThat(sentSystemBlock().has("cache_control")).isFalse();
+
+        ReflectionTestUtils.setField(service, "promptCacheEnabled", false);
+        service.chat(request(true));
+        assertThat(sentSystemBlock().has("cache_control")).isFalse();
+    }
+
+    @Test
+    void recordsCacheTokenCounts() {
+        ChatResponse response = service.chat(request(true));
+
+        assertThat(response.getUsage().getCacheReadInputTokens()).isEqualTo(1200);
+        assertThat(tokens("input")).isEqualTo(1500);
+        assertThat(tokens("output")).isEqualTo(20);
+        assertThat(tokens("cache_read")).isEqualTo(1200);
+        assertThat(tokens("cache_write")).isZero();
+        assertThat(meterRegistry.get("bedrock.prompt.cache").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    private static ChatRequest request(boolean cacheSystem) {
+        ChatRequest request = new ChatRequest();
+        request.setSystem("Extract all events.");
+        request.setMessage("txt:\nJazz Night, March 14, 7pm");
+        request.setCacheSystem(cacheSystem);
+        return request;
+    }
+
+    private JSONObject sentSystemBlock() {
+        ArgumentCaptor<InvokeModelRequest> sent = ArgumentCaptor.forClass(InvokeModelRequest.class);
+        verify(client, atLeastOnce()).invokeModel(sent.capture());
+        JSONObject body = new JSONObject(sent.getValue().body().asUtf8String());
+        return body.getJSONArray("system").getJSONObject(0);
+    }
+
+    private double tokens(String type) {
+        return meterRegistry.get("bedrock.tokens").tag("type", type).counter().count();
+    }
+}
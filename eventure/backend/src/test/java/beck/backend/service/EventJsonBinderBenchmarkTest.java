@@ -0,0 +1,103 @@
+package beck.backend.service;
+
+import beck.backend.Microbenchmark;
+import beck.backend.model.Event;
+import beck.backend.repository.EventRepository;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Parse time and allocation of the two extraction formats for the same 20 events: the text reply
+ * (fence stripping, org.json tree, field-by-field copy in EventService.parseEventsFromJson) against
+ * the tool-use response body bound by EventJsonBinder in one streaming pass. EventService's per-event
+ * info logging is muted so only parsing is measured.
+ * Run with: mvn test -Dbenchmarks=true -Dtest=EventJsonBinderBenchmarkTest
+ */
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class EventJsonBinderBenchmarkTest {
+
+    private static final int WARMUP = 5_000;
+    private static final int ITERATIONS = 20_000;
+    private static final String SOURCE_URL = "https://example.com/events";
+
+    private final Logger serviceLogger = (Logger) LoggerFactory.getLogger(EventService.class);
+    private Level serviceLevel;
+
+    private String textReply;
+    private byte[] toolResponse;
+
+    @BeforeEach
+    void setUp() {
+        serviceLevel = serviceLogger.getLevel();
+        serviceLogger.setLevel(Level.WARN);
+
+        JSONArray events = new JSONArray();
+        for (int i = 0; i < 20; i++) {
+            events.put(new JSONObject()
+                    .put("title", "Event " + i)
+                    .put("date", new JSONArray().put(1 + i % 12).put(1 + i).put(2025))
+                    .put("startTime", 600 + i * 15)
+                    .put("endTime", 660 + i * 15)
+                    .put("address", "Student Union Hall, 400 College Rd, Springfield, USA")
+                    .put("note", "Event " + i + " hosted on campus. Open to everyone; bring a friend."));
+        }
+        textReply = "```json\n" + events.toString(2) + "\n```";
+        toolResponse = new JSONObject()
+                .put("id", "msg_1")
+                .put("content", new JSONArray().put(new JSONObject()
+                        .put("type", "tool_use")
+                        .put("id", "toolu_1")
+                        .put("name", EventJsonBinder.TOOL_NAME)
+                        .put("input", new JSONObject().put("events", events))))
+                .put("stop_reason", "tool_use")
+                .put("usage", new JSONObject().put("input_tokens", 4000).put("output_tokens", 900))
+                .toString()
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @AfterEach
+    void restoreLogging() {
+        serviceLogger.setLevel(serviceLevel);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void textReplyAgainstToolResponse() throws Exception {
+        EventService eventService = new EventService(mock(EventRepository.class), mock(LlmService.class),
+                mock(PageFetchService.class), mock(TextReducer.class), mock(ObjectProvider.class));
+        Method parseEventsFromJson = EventService.class.getDeclaredMethod("parseEventsFromJson", String.class, String.class);
+        parseEventsFromJson.setAccessible(true);
+
+        List<Event> fromText = (List<Event>) parseEventsFromJson.invoke(eventService, textReply, SOURCE_URL);
+        List<Event> fromTool = EventJsonBinder.readToolEvents(new ByteArrayInputStream(toolResponse), SOURCE_URL).events();
+        assertThat(fromTool).hasSize(20).isEqualTo(fromText);
+
+        Microbenchmark.Result text = Microbenchmark.measure("text reply, org.json", WARMUP, ITERATIONS, () -> {
+            try {
+                return parseEventsFromJson.invoke(eventService, textReply, SOURCE_URL);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        Microbenchmark.Result tool = Microbenchmark.measure("tool response, streaming Jackson", WARMUP, ITERATIONS,
+                () -> EventJsonBinder.readToolEvents(new ByteArrayInputStream(toolResponse), SOURCE_URL));
+
+        assertThat(tool.bytesPerOp()).isLessThan(text.bytesPerOp());
+    }
+}
@@ -0,0 +1,190 @@
+package beck.backend.service;
+
+import beck.backend.model.Event;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ScheduleConflictServiceTest {
+
+    private TravelTimeService travelTimeService;
+    private ScheduleConflictService service;
+    private Map<String, Collection<String>> requested;
+
+    @BeforeEach
+    void setUp() {
+        travelTimeService = mock(TravelTimeService.class);
+        service = new ScheduleConflictService(travelTimeService);
+        requested = new LinkedHashMap<>();
+        walkingMinutes(20);
+    }
+
+    // Every requested leg takes the given minutes, except between identical addresses
+    private void walkingMinutes(int minutes) {
+        when(travelTimeService.getTravelTimes(anyMap())).thenAnswer(invocation -> {
+            Map<String, Collection<String>> legs = invocation.getArgument(0);
+            Map<String, Map<String, Integer>> times = new LinkedHashMap<>();
+            legs.forEach((origin, destinations) -> {
+                requested.put(origin, destinations);
+                Map<String, Integer> row = new LinkedHashMap<>();
+                destinations.forEach(destination -> row.put(destination, origin.equals(destination) ? 0 : minutes));
+                times.put(origin, row);
+            });
+            return times;
+        });
+    }
+
+    private static Event event(String title, int start, int end, String address) {
+        Event event = new Event();
+        event.setTitle(title);
+        event.setStartTime(start);
+        event.setEndTime(end);
+        event.setAddress(address);
+        return event;
+    }
+
+    private List<ScheduleConflictService.Conflict> check(Event... events) {
+        return service.findConflicts(Map.of("Monday", List.of(events)));
+    }
+
+    private static List<String> summary(List<ScheduleConflictService.Conflict> conflicts) {
+        return conflicts.stream().map(c -> c.type() + " " + c.first() + "-" + c.second()).toList();
+    }
+
+    @Test
+    void nestedIntervalsOverlapTheOuterOneOnly() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("outer", 540, 720, "Hall A"),
+            event("inner", 600, 660, "Hall A"),
+            event("late", 690, 750, "Hall A"));
+
+        assertThat(summary(conflicts)).containsExactly("overlap 0-1", "overlap 0-2");
+    }
+
+    @Test
+    void touchingIntervalsDoNotOverlap() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("first", 540, 600, "Hall A"),
+            event("second", 600, 660, "Hall A"));
+
+        assertThat(conflicts).isEmpty();
+    }
+
+    @Test
+    void touchingIntervalsInDifferentPlacesNeedTravelTime() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("first", 540, 600, "Hall A"),
+            event("second", 600, 660, "Library"));
+
+        assertThat(conflicts).singleElement().satisfies(c -> {
+            assertThat(c.type()).isEqualTo(ScheduleConflictService.TRAVEL);
+            assertThat(c.travelMinutes()).isEqualTo(20);
+            assertThat(c.gapMinutes()).isZero();
+        });
+    }
+
+    @Test
+    void chainedIntervalsOverlapOnlyTheirNeighbours() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("a", 540, 600, "Hall A"),
+            event("b", 590, 650, "Hall A"),
+            event("c", 640, 700, "Hall A"));
+
+        assertThat(summary(conflicts)).containsExactly("overlap 0-1", "overlap 1-2");
+    }
+
+    @Test
+    void indexesReferToTheListAsGiven() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("late", 700, 760, "Hall A"),
+            event("early", 540, 600, "Hall A"),
+            event("overlaps late", 720, 780, "Hall A"));
+
+        assertThat(summary(conflicts)).containsExactly("overlap 0-2");
+    }
+
+    @Test
+    void travelLegStartsFromTheEventThatEndedLast() {
+        // The short talk ends first, but the workshop is where the walk to the dinner starts from
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("workshop", 540, 720, "Lab"),
+            event("talk", 560, 580, "Library"),
+            event("dinner", 730, 800, "Cafe"));
+
+        assertThat(requested.keySet()).containsExactly("Lab");
+        assertThat(requested.get("Lab")).containsExactly("Cafe");
+        assertThat(summary(conflicts)).containsExactly("overlap 0-1", "travel 0-2");
+    }
+
+    @Test
+    void requestsOnlyTheLegsNotTheCrossProduct() {
+        check(
+            event("a", 540, 600, "Lab"),
+            event("b", 620, 680, "Library"),
+            event("c", 700, 760, "Cafe"),
+            event("d", 780, 840, "Lab"));
+
+        assertThat(requested).containsOnlyKeys("Lab", "Library", "Cafe");
+        assertThat(requested.get("Lab")).containsExactly("Library");
+        assertThat(requested.get("Library")).containsExactly("Cafe");
+        assertThat(requested.get("Cafe")).containsExactly("Lab");
+    }
+
+    @Test
+    void enoughGapIsNotAConflict() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("a", 540, 600, "Lab"),
+            event("b", 630, 680, "Library"));
+
+        assertThat(conflicts).isEmpty();
+    }
+
+    @Test
+    void missingAddressSkipsTravelButStillReportsOverlap() {
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("a", 540, 600, null),
+            event("b", 590, 650, "Library"),
+            event("c", 650, 700, ""));
+
+        assertThat(summary(conflicts)).containsExactly("overlap 0-1");
+        verify(travelTimeService, never()).getTravelTimes(anyMap());
+    }
+
+    @Test
+    void unroutableLegIsAssumedToConflict() {
+        when(travelTimeService.getTravelTimes(anyMap())).thenReturn(Map.of());
+
+        List<ScheduleConflictService.Conflict> conflicts = check(
+            event("a", 540, 600, "Lab"),
+            event("b", 700, 760, "Island"));
+
+        assertThat(conflicts).singleElement().satisfies(c -> {
+            assertThat(c.type()).isEqualTo(ScheduleConflictService.TRAVEL);
+            assertThat(c.travelMinutes()).isNull();
+        });
+    }
+
+    @Test
+    void conflictsAreOrderedByDayAsGiven() {
+        Map<String, List<Event>> week = new LinkedHashMap<>();
+        week.put("Monday", List.of(event("a", 540, 600, "Lab"), event("b", 590, 650, "Lab")));
+        week.put("Tuesday", List.of(event("c", 540, 600, "Lab"), event("d", 550, 650, "Lab")));
+
+        List<ScheduleConflictService.Conflict> conflicts = service.findConflicts(week);
+
+        assertThat(conflicts).extracting(ScheduleConflictService.Conflict::day).containsExactly("Monday", "Tuesday");
+        assertThat(Set.copyOf(summary(conflicts))).containsExactly("overlap 0-1");
+    }
+}
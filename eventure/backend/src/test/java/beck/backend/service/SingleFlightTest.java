@@ -0,0 +1,191 @@
+package beck.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        singleFlight = new SingleFlight<>("test", meterRegistry);
+        callers = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void concurrentCallersShareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> singleFlight.execute("a|b", () -> {
+                calls.incrementAndGet();
+                release.await();
+                return "12";
+            })));
+        }
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("12");
+        }
+        assertThat(calls).hasValue(1);
+        assertThat(count("issued")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(CALLERS - 1);
+    }
+
+    @Test
+    void failureReachesEveryWaiter() throws Exception {
+        IOException failure = new IOException("upstream down");
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(callers.submit(() -> singleFlight.execute("a|b", () -> {
+                release.await();
+                throw failure;
+            })));
+        }
+        awaitCoalesced(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .cause().isSameAs(failure);
+        }
+        assertThat(count("issued")).isEqualTo(1);
+    }
+
+    @Test
+    void keyIsReleasedAfterSuccess() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+
+        assertThat(singleFlight.execute("a|b", () -> "first " + calls.incrementAndGet())).isEqualTo("first 1");
+        assertThat(singleFlight.execute("a|b", () -> "second " + calls.incrementAndGet())).isEqualTo("second 2");
+
+        assertThat(count("issued")).isEqualTo(2);
+        assertThat(count("coalesced")).isZero();
+    }
+
+    @Test
+    void keyIsReleasedAfterFailure() throws Exception {
+        assertThatThrownBy(() -> singleFlight.execute("a|b", () -> {
+            throw new IOException("upstream down");
+        })).isInstanceOf(IOException.class);
+
+        assertThat(singleFlight.execute("a|b", () -> "12")).isEqualTo("12");
+        assertThat(count("issued")).isEqualTo(2);
+    }
+
+    @Test
+    void differentKeysDoNotWaitForEachOther() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> blocked = callers.submit(() -> singleFlight.execute("a|b", () -> {
+            release.await();
+            return "12";
+        }));
+
+        assertThat(singleFlight.execute("c|d", () -> "7")).isEqualTo("7");
+        release.countDown();
+        assertThat(blocked.get(5, TimeUnit.SECONDS)).isEqualTo("12");
+        assertThat(count("coalesced")).isZero();
+    }
+
+    @Test
+    void asyncCallersShareOneFuture() {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("a|b", () -> {
+            calls.incrementAndGet();
+            return upstream;
+        });
+        CompletableFuture<String> second = singleFlight.executeAsync("a|b", () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        assertThat(first).isNotDone();
+        upstream.complete("12");
+
+        assertThat(first.join()).isEqualTo("12");
+        assertThat(second.join()).isEqualTo("12");
+        assertThat(calls).hasValue(1);
+        assertThat(count("issued")).isEqualTo(1);
+        assertThat(count("coalesced")).isEqualTo(1);
+    }
+
+    @Test
+    void asyncFailureReachesEveryCallerAndReleasesTheKey() {
+        IOException failure = new IOException("upstream down");
+        CompletableFuture<String> upstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = singleFlight.executeAsync("a|b", () -> upstream);
+        CompletableFuture<String> second = singleFlight.executeAsync("a|b", () -> upstream);
+        upstream.completeExceptionally(failure);
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThatThrownBy(first::join).cause().isSameAs(failure);
+
+        assertThat(singleFlight.executeAsync("a|b", () -> CompletableFuture.completedFuture("12")).join())
+                .isEqualTo("12");
+        assertThat(count("issued")).isEqualTo(2);
+    }
+
+    @Test
+    void asyncSupplierThrowingSynchronouslyFailsTheFutureAndReleasesTheKey() {
+        IllegalStateException failure = new IllegalStateException("no client");
+
+        CompletableFuture<String> result = singleFlight.executeAsync("a|b", () -> {
+            throw failure;
+        });
+
+        assertThat(result).isCompletedExceptionally();
+        assertThatThrownBy(result::join).cause().isSameAs(failure);
+        assertThat(singleFlight.executeAsync("a|b", () -> CompletableFuture.completedFuture("12")).join())
+                .isEqualTo("12");
+    }
+
+    private void awaitCoalesced(int waiters) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < waiters) {
+            assertThat(System.nanoTime()).as("callers joining the flight").isLessThan(deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("singleflight.calls").tag("name", "test").tag("result", result).counter().count();
+    }
+}
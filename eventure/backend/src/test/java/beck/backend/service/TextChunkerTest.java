@@ -0,0 +1,102 @@
+package beck.backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextChunkerTest {
+
+    @Test
+    void shortTextIsOneChunkAsIs() {
+        String text = "Jazz Night\nMarch 3, 7pm\n\nRiverside Park";
+
+        assertThat(TextChunker.split(text, 100, 20)).containsExactly(text);
+    }
+
+    @Test
+    void cutsOnParagraphBoundaries() {
+        String text = String.join("\n\n", paragraph("a", 3), paragraph("b", 3), paragraph("c", 3));
+
+        List<String> chunks = TextChunker.split(text, 80, 0);
+
+        assertThat(chunks).hasSize(3);
+        assertThat(chunks.get(0)).isEqualTo(paragraph("a", 3) + "\n");
+        assertThat(chunks.get(1)).isEqualTo(paragraph("b", 3) + "\n");
+        assertThat(chunks.get(2)).isEqualTo(paragraph("c", 3) + "\n");
+    }
+
+    @Test
+    void fallsBackToLinesForLongParagraphs() {
+        String text = paragraph("a", 10);
+
+        List<String> chunks = TextChunker.split(text, 100, 0);
+
+        assertThat(chunks).hasSizeGreaterThan(1);
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk).endsWith("\n").doesNotContain("\n\n"));
+        assertThat(String.join("", chunks)).isEqualTo(text + "\n");
+    }
+
+    @Test
+    void splitsMidLineOnlyForLinesLongerThanAChunk() {
+        String line = "x".repeat(250);
+
+        List<String> chunks = TextChunker.split("short line\n" + line, 100, 0);
+
+        assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(100));
+        assertThat(String.join("", chunks).replace("\n", "")).isEqualTo("short line" + line);
+    }
+
+    @Test
+    void overlapRepeatsWholeTrailingLinesOfThePreviousChunk() {
+        String text = paragraph("a", 10);
+
+        List<String> chunks = TextChunker.split(text, 100, 40);
+
+        for (int i = 1; i < chunks.size(); i++) {
+            String previous = chunks.get(i - 1);
+            String firstLine = chunks.get(i).substring(0, chunks.get(i).indexOf('\n') + 1);
+            assertThat(previous).endsWith(firstLine);
+            assertThat(previous).contains("\n" + firstLine);
+        }
+    }
+
+    @Test
+    void chunksStayWithinTheLimitIncludingOverlap() {
+        List<String> paragraphs = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            paragraphs.add(paragraph("p" + i, 1 + i % 5));
+        }
+        String text = String.join("\n\n", paragraphs) + "\n" + "y".repeat(300);
+
+        for (int maxChars : new int[] {50, 64, 99, 100, 150}) {
+            List<String> chunks = TextChunker.split(text, maxChars, maxChars / 2);
+
+            assertThat(chunks).hasSizeGreaterThan(1);
+            assertThat(chunks).allSatisfy(chunk -> assertThat(chunk.length()).isLessThanOrEqualTo(maxChars));
+        }
+    }
+
+    @Test
+    void everyLineAppearsInSomeChunk() {
+        String text = String.join("\n\n", paragraph("a", 4), paragraph("b", 7), paragraph("c", 2));
+
+        List<String> chunks = TextChunker.split(text, 90, 30);
+
+        for (String line : text.split("\\n")) {
+            if (!line.isEmpty()) {
+                assertThat(chunks).anySatisfy(chunk -> assertThat(chunk).contains(line + "\n"));
+            }
+        }
+    }
+
+    private static String paragraph(String name, int lines) {
+        List<String> text = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            text.add("Event " + name + " line " + i + " at 7pm");
+        }
+        return String.join("\n", text);
+    }
+}
@@ -0,0 +1,112 @@
+package beck.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TextReducerTest {
+
+    private TextReducer reducer;
+
+    @BeforeEach
+    void setUp() {
+        reducer = new TextReducer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(reducer, "enabled", true);
+        ReflectionTestUtils.setField(reducer, "contextLines", 1);
+        ReflectionTestUtils.setField(reducer, "maxRepeats", 2);
+        ReflectionTestUtils.setField(reducer, "menuRunLines", 4);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "We use cookies to improve your experience.",
+        "This website uses cookies",
+        "Accept all cookies",
+        "Cookie settings",
+        "Privacy Policy",
+        "Terms of Service",
+        "© 2024 Example University",
+        "Copyright 2024 Example University. All rights reserved.",
+        "Example Org. All rights reserved",
+        "Skip to main content",
+        "Sign in",
+        "Follow us on Instagram",
+        "Back to top",
+    })
+    void recognisesBannerLines(String line) {
+        assertThat(TextReducer.isBoilerplate(line)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Cookie decorating workshop",
+        "Join us for milk and cookies in the lounge",
+        "Learn about privacy policy changes with the law school panel",
+        "Menus and tasting notes from the chef",
+        "Searching for meaning: a philosophy talk",
+    })
+    void keepsContentThatMentionsBannerWords(String line) {
+        assertThat(TextReducer.isBoilerplate(line)).isFalse();
+    }
+
+    @Test
+    void longLinesAreNeverBanners() {
+        String line = "We use cookies " + "and other baked goods ".repeat(10);
+        assertThat(TextReducer.isBoilerplate(line)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Monday", "Tues", "Wednesday", "Thurs", "Thursday's lecture", "Fri", "Saturdays", "Sun",
+        "March 14", "Sept. 3", "14th October", "12/05/2025", "7:30 pm", "18:00",
+        "Room 204", "Student Center", "Tonight only",
+    })
+    void recognisesDateTimeAndPlaceSignals(String line) {
+        assertThat(TextReducer.hasSignal(line)).isTrue();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "Money matters", "Monster truck", "Wedding photos", "Friends of the orchestra",
+        "Friendly staff", "Saturate", "Sunny", "Sunset views", "Market 5", "Maybe later",
+    })
+    void ignoresWordsThatOnlyStartLikeDays(String line) {
+        assertThat(TextReducer.hasSignal(line)).isFalse();
+    }
+
+    @Test
+    void dropsBannersButKeepsEventLinesMentioningCookies() {
+        String page = String.join("\n",
+            "We use cookies to improve your experience.",
+            "Cookie decorating workshop",
+            "Friday, March 14 at 3:00 pm",
+            "© 2024 Example University");
+
+        assertThat(reducer.reduce(page)).isEqualTo("Cookie decorating workshop\nFriday, March 14 at 3:00 pm");
+    }
+
+    @Test
+    void dropsMenuRunsAndLinesFarFromSignals() {
+        String page = String.join("\n",
+            "Home", "About", "News", "Contact", "Donate",
+            "A long paragraph about the history of the department and its people.",
+            "Another paragraph with nothing to anchor an event on at all.",
+            "Spring concert",
+            "Saturday April 5, 7:00 pm",
+            "Main Hall");
+
+        assertThat(reducer.reduce(page)).isEqualTo("Spring concert\nSaturday April 5, 7:00 pm\nMain Hall");
+    }
+
+    @Test
+    void leavesPagesWithoutSignalsAfterBoilerplateRemoval() {
+        String page = "Sign in\nOur story\nWhy we started this club and who runs it";
+
+        assertThat(reducer.reduce(page)).isEqualTo("Our story\nWhy we started this club and who runs it");
+    }
+}
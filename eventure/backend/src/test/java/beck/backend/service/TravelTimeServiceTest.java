@@ -0,0 +1,118 @@
+package beck.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TravelTimeServiceTest {
+
+    private TravelTimeCache cache;
+    private TravelTimeService service;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        cache = new TravelTimeCache(meterRegistry, 1000, 30, 60);
+        service = new TravelTimeService(cache, meterRegistry);
+        ReflectionTestUtils.setField(service, "apiKey", "");
+    }
+
+    @Test
+    void packsAChainOfLegsIntoFewRequests() {
+        Map<String, List<String>> legs = new LinkedHashMap<>();
+        for (int i = 0; i < 40; i++) {
+            legs.put("Venue " + i, List.of("Venue " + (i + 1)));
+        }
+
+        List<TravelTimeService.MatrixRequest> requests = TravelTimeService.packLegs(legs);
+
+        assertThat(requests).hasSize(4);
+        assertWithinLimits(requests);
+        assertCovers(requests, legs);
+    }
+
+    @Test
+    void splitsAnOriginWithMoreThan25Destinations() {
+        List<String> destinations = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            destinations.add("Venue " + i);
+        }
+        Map<String, List<String>> legs = new LinkedHashMap<>();
+        legs.put("Hall A", destinations);
+        legs.put("Hall B", List.of("Venue 0"));
+
+        List<TravelTimeService.MatrixRequest> requests = TravelTimeService.packLegs(legs);
+
+        assertThat(requests).hasSize(2);
+        assertWithinLimits(requests);
+        assertCovers(requests, legs);
+    }
+
+    @Test
+    void packsIndependentLegsIntoOneRequestWhenTheGridFits() {
+        Map<String, List<String>> legs = new LinkedHashMap<>();
+        legs.put("Hall A", List.of("Hall B", "Hall C"));
+        legs.put("Hall B", List.of("Hall C"));
+        legs.put("Hall C", List.of("Hall D"));
+
+        List<TravelTimeService.MatrixRequest> requests = TravelTimeService.packLegs(legs);
+
+        assertThat(requests).singleElement().satisfies(request -> {
+            assertThat(request.origins()).containsExactly("Hall A", "Hall B", "Hall C");
+            assertThat(request.destinations()).containsExactly("Hall B", "Hall C", "Hall D");
+        });
+    }
+
+    @Test
+    void answersFromTheCacheFirst() {
+        cache.put("Hall A", "Hall B", 7);
+
+        Map<String, Map<String, Integer>> times = service.getTravelTimes(Map.of(
+            "Hall A", List.of("Hall B", "hall a", "Hall C")));
+
+        // Without an API key uncached legs fall back to the default estimate
+        assertThat(times.get("Hall A")).containsEntry("Hall B", 7).containsEntry("hall a", 0).containsEntry("Hall C", 15);
+    }
+
+    @Test
+    void leavesUnroutableLegsOut() {
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        cache.put("Hall A", "Hall B", 7);
+        cache.putUnroutable("Hall A", "Island");
+
+        Map<String, Map<String, Integer>> times = service.getTravelTimes(Map.of("Hall A", List.of("Hall B", "Island")));
+
+        assertThat(times.get("Hall A")).containsOnlyKeys("Hall B");
+    }
+
+    private static void assertWithinLimits(List<TravelTimeService.MatrixRequest> requests) {
+        assertThat(requests).allSatisfy(request -> {
+            assertThat(request.origins()).hasSizeLessThanOrEqualTo(25);
+            assertThat(request.destinations()).hasSizeLessThanOrEqualTo(25);
+            assertThat(request.origins().size() * request.destinations().size()).isLessThanOrEqualTo(100);
+        });
+    }
+
+    private static void assertCovers(List<TravelTimeService.MatrixRequest> requests, Map<String, List<String>> legs) {
+        Set<String> fetched = new HashSet<>();
+        for (TravelTimeService.MatrixRequest request : requests) {
+            for (String origin : request.origins()) {
+                for (String destination : request.destinations()) {
+                    fetched.add(origin + " -> " + destination);
+                }
+            }
+        }
+        legs.forEach((origin, destinations) -> destinations.forEach(destination ->
+            assertThat(fetched).contains(origin + " -> " + destination)));
+    }
+}
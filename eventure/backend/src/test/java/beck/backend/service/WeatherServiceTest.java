@@ -0,0 +1,81 @@
+package beck.backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class WeatherServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 3, 14);
+
+    private HttpClient httpClient;
+    private WeatherService service;
+
+    @BeforeEach
+    void setUp() {
+        httpClient = mock(HttpClient.class);
+        service = new WeatherService(new SimpleMeterRegistry(), 60, 1000, 48, 30, 10_000, 15, 120, 200, 5000);
+        ReflectionTestUtils.setField(service, "httpClient", httpClient);
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        ReflectionTestUtils.setField(service, "deadlineMs", 3000L);
+    }
+
+    @Test
+    void rejectedAddressIsNotGeocodedAgain() {
+        CompletableFuture<HttpResponse<Object>> reply = geocodeReply("ZERO_RESULTS");
+        when(httpClient.sendAsync(any(), any())).thenReturn(reply);
+
+        service.getWeather("Nowhere", DAY);
+        service.getWeather("Nowhere", DAY);
+
+        verify(httpClient, times(1)).sendAsync(geocodeRequest(), any());
+    }
+
+    @Test
+    void transportFailureIsRetriedOnTheNextCall() {
+        when(httpClient.sendAsync(any(), any()))
+                .thenReturn(CompletableFuture.failedFuture(new HttpTimeoutException("request timed out")));
+
+        service.getWeather("Springfield", DAY);
+        service.getWeather("Springfield", DAY);
+
+        verify(httpClient, times(2)).sendAsync(geocodeRequest(), any());
+    }
+
+    @Test
+    void quotaErrorIsRetriedOnTheNextCall() {
+        CompletableFuture<HttpResponse<Object>> reply = geocodeReply("OVER_QUERY_LIMIT");
+        when(httpClient.sendAsync(any(), any())).thenReturn(reply);
+
+        service.getWeather("Springfield", DAY);
+        service.getWeather("Springfield", DAY);
+
+        verify(httpClient, times(2)).sendAsync(geocodeRequest(), any());
+    }
+
+    private static HttpRequest geocodeRequest() {
+        return argThat(request -> request.uri().getPath().endsWith("/geocode/json"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<HttpResponse<Object>> geocodeReply(String status) {
+        HttpResponse<Object> response = mock(HttpResponse.class);
+        when(response.body()).thenReturn("{\"status\": \"" + status + "\", \"results\": []}");
+        return CompletableFuture.completedFuture(response);
+    }
+}
@@ -189,6 +189,43 @@ const SchedulePage = () => {
     }
   }
 
+  // Checks the whole week in one request; falls back to pairwise checks if the batch call fails
+  async function findFirstConflict(weekSchedule) {
+    try {
+      const response = await fetch('http://localhost:8080/api/events/conflicts', {
+        method: 'POST',
+        headers: { 'Content-Type': 'application/json' },
+        body: JSON.stringify(weekSchedule),
+      });
+      if (response.ok) {
+        const data = await response.json();
+        const conflicts = Array.isArray(data?.conflicts) ? data.conflicts : [];
+        for (const day of DAYS) {
+          const conflict = conflicts.find((c) => c.day === day);
+          if (conflict) {
+            return { day, options: [weekSchedule[day][conflict.first], weekSchedule[day][conflict.second]] };
+          }
+        }
+        return null;
+      }
+      console.warn('Batch conflict check failed', response.status);
+    } catch (err) {
+      console.error('Failed to check conflicts for the week', err);
+    }
+
+    for (const day of DAYS) {
+      const eventsForDay = weekSchedule[day];
+      for (let i = 1; i < eventsForDay.length; i += 1) {
+        const prev = eventsForDay[i - 1];
+        const current = eventsForDay[i];
+        if (await verifyConflictWithTravel(prev, current)) {
+          return { day, options: [prev, current] };
+        }
+      }
+    }
+    return null;
+  }
+
   const handleFillSchedule = async () => {
     const provisionalSchedule = DAYS.reduce((acc, day) => {
       const existing = Array.isArray(schedule[day]) ? schedule[day] : [];
@@ -206,27 +243,12 @@ const SchedulePage = () => {
       scheduledCandidates.add(event);
     });
 
-    let confirmedConflict = null;
-
     for (const day of DAYS) {
-      const eventsForDay = provisionalSchedule[day];
-      eventsForDay.sort((a, b) => toAbsoluteMinutes(a.startTime) - toAbsoluteMinutes(b.startTime));
-
-      for (let i = 1; i < eventsForDay.length; i += 1) {
-        const prev = eventsForDay[i - 1];
-        const current = eventsForDay[i];
-        const conflict = await verifyConflictWithTravel(prev, current);
-        if (conflict) {
-          confirmedConflict = { day, options: [prev, current] };
-          break;
-        }
-      }
-
-      if (confirmedConflict) {
-        break;
-      }
+      provisionalSchedule[day].sort((a, b) => toAbsoluteMinutes(a.startTime) - toAbsoluteMinutes(b.startTime));
     }
 
+    const confirmedConflict = await findFirstConflict(provisionalSchedule);
+
     if (confirmedConflict) {
       const { day, options } = confirmedConflict;
       const cleanedSchedule = DAYS.reduce((acc, weekday) => {